@@ -4,8 +4,12 @@ import com.crowdsense.server.dto.ApiResponse;
 import com.crowdsense.server.dto.response.BeaconIdsResponse;
 import com.crowdsense.server.dto.response.BeaconSummary;
 import com.crowdsense.server.dto.response.CrowdAvgResponse;
+import com.crowdsense.server.dto.response.CrowdForecastResponse;
 import com.crowdsense.server.dto.response.CrowdStatResponse;
+import com.crowdsense.server.dto.response.CrowdTileResponse;
 import com.crowdsense.server.service.BeaconService;
+import com.crowdsense.server.service.CrowdForecastService;
+import com.crowdsense.server.service.CrowdTileService;
 
 import java.util.List;
 
@@ -19,11 +23,17 @@ public class ApiController {
     private static final int MAX_LIMIT = 25;
     private static final int MAX_TIME_MINUTES = 30;
     private static final int MAX_PERIOD_DAYS = 30;
+    private static final int MAX_FORECAST_HOURS = 168;
 
     private final BeaconService beaconService;
+    private final CrowdTileService crowdTileService;
+    private final CrowdForecastService crowdForecastService;
 
-    public ApiController(BeaconService beaconService) {
+    public ApiController(BeaconService beaconService, CrowdTileService crowdTileService,
+                         CrowdForecastService crowdForecastService) {
         this.beaconService = beaconService;
+        this.crowdTileService = crowdTileService;
+        this.crowdForecastService = crowdForecastService;
     }
 
     @RequestMapping(value = "/beacon_geo", method = {RequestMethod.GET, RequestMethod.POST})
@@ -97,4 +107,34 @@ public class ApiController {
         CrowdStatResponse payload = beaconService.getCrowdStat(id, days);
         return ResponseEntity.ok(new ApiResponse<>(200, payload));
     }
+
+    @RequestMapping(value = "/crowd_forecast", method = {RequestMethod.GET, RequestMethod.POST})
+    public ResponseEntity<ApiResponse<CrowdForecastResponse>> crowdForecast(
+            @RequestParam String id,
+            @RequestParam(defaultValue = "24") int hours
+    ) {
+        int h = Math.min(Math.max(hours, 1), MAX_FORECAST_HOURS);
+        CrowdForecastResponse payload = crowdForecastService.getForecast(id, h);
+
+        if (payload == null) {
+            return ResponseEntity.ok(new ApiResponse<>(404, null));
+        }
+
+        return ResponseEntity.ok(new ApiResponse<>(200, payload));
+    }
+
+    @RequestMapping(value = "/crowd_tile", method = {RequestMethod.GET, RequestMethod.POST})
+    public ResponseEntity<ApiResponse<CrowdTileResponse>> crowdTile(
+            @RequestParam int z,
+            @RequestParam int x,
+            @RequestParam int y
+    ) {
+        CrowdTileResponse payload = crowdTileService.getTile(z, x, y);
+
+        if (payload == null) {
+            return ResponseEntity.ok(new ApiResponse<>(400, null));
+        }
+
+        return ResponseEntity.ok(new ApiResponse<>(200, payload));
+    }
 }
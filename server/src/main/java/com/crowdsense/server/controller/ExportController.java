@@ -0,0 +1,76 @@
+package com.crowdsense.server.controller;
+
+import com.crowdsense.server.service.ScanExportService;
+import com.crowdsense.server.service.ScanExportService.Format;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.zip.GZIPOutputStream;
+
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+@RestController
+public class ExportController {
+
+    private static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson;charset=UTF-8");
+    private static final MediaType CSV = MediaType.parseMediaType("text/csv;charset=UTF-8");
+    private static final int GZIP_BUFFER = 64 * 1024;
+
+    private final ScanExportService exportService;
+
+    public ExportController(ScanExportService exportService) {
+        this.exportService = exportService;
+    }
+
+    @RequestMapping(value = "/scan_export", method = {RequestMethod.GET, RequestMethod.POST})
+    public ResponseEntity<StreamingResponseBody> scanExport(
+            @RequestParam(required = false) String id,
+            @RequestParam(required = false) String region,
+            @RequestParam long from,
+            @RequestParam long to,
+            @RequestParam(defaultValue = "ndjson") String format,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding
+    ) {
+        Format fmt;
+        try {
+            fmt = Format.valueOf(format.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST);
+        }
+        if (from > to) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST);
+        }
+
+        List<String> ids = exportService.resolveIds(id, region);
+        if (ids.isEmpty()) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND);
+        }
+
+        boolean gzip = acceptEncoding != null && acceptEncoding.toLowerCase(Locale.ROOT).contains("gzip");
+        StreamingResponseBody body = out -> {
+            if (gzip) {
+                GZIPOutputStream gz = new GZIPOutputStream(out, GZIP_BUFFER, true);
+                exportService.export(ids, from, to, fmt, gz);
+                gz.finish();
+            } else {
+                exportService.export(ids, from, to, fmt, out);
+            }
+        };
+
+        String name = "scans_" + from + "_" + to + (fmt == Format.CSV ? ".csv" : ".ndjson");
+        ResponseEntity.BodyBuilder res = ResponseEntity.ok()
+                .contentType(fmt == Format.CSV ? CSV : NDJSON)
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment().filename(name).build().toString());
+        if (gzip) {
+            res.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        return res.body(body);
+    }
+}
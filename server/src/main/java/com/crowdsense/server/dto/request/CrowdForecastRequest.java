@@ -0,0 +1,12 @@
+package com.crowdsense.server.dto.request;
+
+public class CrowdForecastRequest {
+    private String id;
+    private int hours = 24;
+
+    public String getId() { return id; }
+    public void setId(String id) { this.id = id; }
+
+    public int getHours() { return hours; }
+    public void setHours(int hours) { this.hours = hours; }
+}
@@ -0,0 +1,16 @@
+package com.crowdsense.server.dto.request;
+
+public class CrowdTileRequest {
+    private int z;
+    private int x;
+    private int y;
+
+    public int getZ() { return z; }
+    public void setZ(int z) { this.z = z; }
+
+    public int getX() { return x; }
+    public void setX(int x) { this.x = x; }
+
+    public int getY() { return y; }
+    public void setY(int y) { this.y = y; }
+}
@@ -0,0 +1,26 @@
+package com.crowdsense.server.dto.response;
+
+public class CrowdCell {
+    private final int cx;
+    private final int cy;
+    private final double lat;
+    private final double lon;
+    private final double crowd;
+    private final int beacons;
+
+    public CrowdCell(int cx, int cy, double lat, double lon, double crowd, int beacons) {
+        this.cx = cx;
+        this.cy = cy;
+        this.lat = lat;
+        this.lon = lon;
+        this.crowd = crowd;
+        this.beacons = beacons;
+    }
+
+    public int getCx() { return cx; }
+    public int getCy() { return cy; }
+    public double getLat() { return lat; }
+    public double getLon() { return lon; }
+    public double getCrowd() { return crowd; }
+    public int getBeacons() { return beacons; }
+}
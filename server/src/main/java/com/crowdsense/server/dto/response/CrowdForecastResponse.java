@@ -0,0 +1,19 @@
+package com.crowdsense.server.dto.response;
+
+import java.util.List;
+
+public class CrowdForecastResponse {
+    private List<Double> list;
+    private long start;
+    private long fitted;
+
+    public CrowdForecastResponse(List<Double> list, long start, long fitted) {
+        this.list = list;
+        this.start = start;
+        this.fitted = fitted;
+    }
+
+    public List<Double> getList() { return list; }
+    public long getStart() { return start; }
+    public long getFitted() { return fitted; }
+}
@@ -0,0 +1,28 @@
+package com.crowdsense.server.dto.response;
+
+import java.util.List;
+
+public class CrowdTileResponse {
+    private int z;
+    private int x;
+    private int y;
+    private int grid;
+    private long updated;
+    private List<CrowdCell> cells;
+
+    public CrowdTileResponse(int z, int x, int y, int grid, long updated, List<CrowdCell> cells) {
+        this.z = z;
+        this.x = x;
+        this.y = y;
+        this.grid = grid;
+        this.updated = updated;
+        this.cells = cells;
+    }
+
+    public int getZ() { return z; }
+    public int getX() { return x; }
+    public int getY() { return y; }
+    public int getGrid() { return grid; }
+    public long getUpdated() { return updated; }
+    public List<CrowdCell> getCells() { return cells; }
+}
@@ -8,6 +8,13 @@ import software.amazon.awssdk.enhanced.dynamodb.mapper.annotations.DynamoDbSortK
 
 @DynamoDbBean
 public class Information {
+    public static final String ATTR_ID = "Id";
+    public static final String ATTR_TYPE = "Type";
+    public static final String ATTR_NAME = "Name";
+    public static final String ATTR_LATITUDE = "Latitude";
+    public static final String ATTR_LONGITUDE = "Longitude";
+    public static final String ATTR_RADIUS = "Radius";
+
     private String id; // Partition Key
     private String type; // Sort Key
 
@@ -17,30 +24,30 @@ public class Information {
     private Integer radius;
 
     @DynamoDbPartitionKey
-    @DynamoDbAttribute("Id")
+    @DynamoDbAttribute(ATTR_ID)
     public String getId() { return id; }
     public void setId(String id) { this.id = id; }
 
     @DynamoDbSecondaryPartitionKey(indexNames = "Type-index")
     @DynamoDbSortKey
-    @DynamoDbAttribute("Type")
+    @DynamoDbAttribute(ATTR_TYPE)
     public String getType() { return type; }
     public void setType(String type) { this.type = type; }
 
     @DynamoDbSecondaryPartitionKey(indexNames = "Name-index")
-    @DynamoDbAttribute("Name")
+    @DynamoDbAttribute(ATTR_NAME)
     public String getName() { return name; }
     public void setName(String name) { this.name = name; }
 
-    @DynamoDbAttribute("Latitude")
+    @DynamoDbAttribute(ATTR_LATITUDE)
     public Double getLatitude() { return latitude; }
     public void setLatitude(Double latitude) { this.latitude = latitude; }
 
-    @DynamoDbAttribute("Longitude")
+    @DynamoDbAttribute(ATTR_LONGITUDE)
     public Double getLongitude() { return longitude; }
     public void setLongitude(Double longitude) { this.longitude = longitude; }
 
-    @DynamoDbAttribute("Radius")
+    @DynamoDbAttribute(ATTR_RADIUS)
     public Integer getRadius() { return radius; }
     public void setRadius(Integer radius) { this.radius = radius; }
 }
\ No newline at end of file
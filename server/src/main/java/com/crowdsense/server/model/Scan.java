@@ -7,6 +7,11 @@ import software.amazon.awssdk.enhanced.dynamodb.mapper.annotations.DynamoDbSortK
 
 @DynamoDbBean
 public class Scan {
+    public static final String ATTR_ID = "Id";
+    public static final String ATTR_TIMESTAMP = "Timestamp";
+    public static final String ATTR_COUNT = "Count";
+    public static final String ATTR_RSSI = "RSSI";
+
     private String id; // Partition Key
     private Long timestamp; // Sort Key
 
@@ -14,20 +19,20 @@ public class Scan {
     private Integer rssi;
 
     @DynamoDbPartitionKey
-    @DynamoDbAttribute("Id")
+    @DynamoDbAttribute(ATTR_ID)
     public String getId() { return id; }
     public void setId(String id) { this.id = id; }
 
     @DynamoDbSortKey
-    @DynamoDbAttribute("Timestamp")
+    @DynamoDbAttribute(ATTR_TIMESTAMP)
     public Long getTimestamp() { return timestamp; }
     public void setTimestamp(Long timestamp) { this.timestamp = timestamp; }
 
-    @DynamoDbAttribute("Count")
+    @DynamoDbAttribute(ATTR_COUNT)
     public Integer getCount() { return count; }
     public void setCount(Integer count) { this.count = count; }
 
-    @DynamoDbAttribute("RSSI")
+    @DynamoDbAttribute(ATTR_RSSI)
     public Integer getRssi() { return rssi; }
     public void setRssi(Integer rssi) { this.rssi = rssi; }
 }
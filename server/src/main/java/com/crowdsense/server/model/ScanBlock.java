@@ -0,0 +1,39 @@
+package com.crowdsense.server.model;
+
+import software.amazon.awssdk.core.SdkBytes;
+import software.amazon.awssdk.enhanced.dynamodb.mapper.annotations.DynamoDbAttribute;
+import software.amazon.awssdk.enhanced.dynamodb.mapper.annotations.DynamoDbBean;
+import software.amazon.awssdk.enhanced.dynamodb.mapper.annotations.DynamoDbPartitionKey;
+import software.amazon.awssdk.enhanced.dynamodb.mapper.annotations.DynamoDbSortKey;
+
+@DynamoDbBean
+public class ScanBlock {
+    private String id; // Partition Key
+    private Long start; // Sort Key (inclusive)
+
+    private Long end; // exclusive
+    private Integer size;
+    private SdkBytes data;
+
+    @DynamoDbPartitionKey
+    @DynamoDbAttribute("Id")
+    public String getId() { return id; }
+    public void setId(String id) { this.id = id; }
+
+    @DynamoDbSortKey
+    @DynamoDbAttribute("Start")
+    public Long getStart() { return start; }
+    public void setStart(Long start) { this.start = start; }
+
+    @DynamoDbAttribute("End")
+    public Long getEnd() { return end; }
+    public void setEnd(Long end) { this.end = end; }
+
+    @DynamoDbAttribute("Size")
+    public Integer getSize() { return size; }
+    public void setSize(Integer size) { this.size = size; }
+
+    @DynamoDbAttribute("Data")
+    public SdkBytes getData() { return data; }
+    public void setData(SdkBytes data) { this.data = data; }
+}
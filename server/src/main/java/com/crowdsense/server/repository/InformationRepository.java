@@ -3,44 +3,64 @@ package com.crowdsense.server.repository;
 import com.crowdsense.server.model.Information;
 import org.springframework.stereotype.Repository;
 
-import software.amazon.awssdk.core.pagination.sync.SdkIterable;
-import software.amazon.awssdk.enhanced.dynamodb.*;
-import software.amazon.awssdk.enhanced.dynamodb.model.QueryConditional;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
 import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
-import software.amazon.awssdk.enhanced.dynamodb.model.Page;
+import software.amazon.awssdk.services.dynamodb.model.QueryRequest;
+import software.amazon.awssdk.services.dynamodb.model.QueryResponse;
+import software.amazon.awssdk.services.dynamodb.model.ScanRequest;
+import software.amazon.awssdk.services.dynamodb.model.ScanResponse;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
+// Reads go through the low-level client with ItemMapper. attributes: Information.ATTR_* to read,
+// empty for all.
 @Repository
 public class InformationRepository {
 
-    private final DynamoDbEnhancedClient client;
-    private final DynamoDbTable<Information> table;
-    private final DynamoDbIndex<Information> nameIndex;
-    private final DynamoDbIndex<Information> typeIndex;
+    private static final String TABLE_NAME = "InformationTable";
+    private static final String NAME_INDEX = "Name-index";
+    private static final String TYPE_INDEX = "Type-index";
 
-    public InformationRepository(DynamoDbEnhancedClient client) {
+    private final DynamoDbClient client;
+
+    public InformationRepository(DynamoDbClient client) {
         this.client = client;
-        this.table = client.table("InformationTable", TableSchema.fromBean(Information.class));
-        this.nameIndex = table.index("Name-index");
-        this.typeIndex = table.index("Type-index");
     }
 
-    public List<Information> queryByName(String name, boolean strict, int limit) {
+    public List<Information> queryByName(String name, boolean strict, int limit, String... attributes) {
         final String term = name == null ? "" : name.trim();
 
+        Map<String, String> names = new HashMap<>();
+        names.put("#n", Information.ATTR_NAME);
+        Map<String, AttributeValue> values = new HashMap<>();
+        values.put(":term", AttributeValue.builder().s(term).build());
+        if (strict && attributes.length > 0 && !List.of(attributes).contains(Information.ATTR_NAME)) {
+            attributes = Arrays.copyOf(attributes, attributes.length + 1);
+            attributes[attributes.length - 1] = Information.ATTR_NAME;
+        }
+        String proj = ItemMapper.projection(attributes, names);
+
     List<Information> result = new ArrayList<>();
         if (strict) {
-            Key key = Key.builder().partitionValue(term).build();
-            SdkIterable<Page<Information>> pages = nameIndex.query(r -> r
-                    .queryConditional(QueryConditional.keyEqualTo(key))
+            QueryRequest req = QueryRequest.builder()
+                    .tableName(TABLE_NAME)
+                    .indexName(NAME_INDEX)
+                    .keyConditionExpression("#n = :term")
+                    .expressionAttributeNames(names)
+                    .expressionAttributeValues(values)
+                    .projectionExpression(proj)
                     .limit(Math.max(limit, 1))
-            );
+                    .build();
 
-            for (Page<Information> p : pages) {
-                for (Information item : p.items()) {
-                    result.add(item);
+            for (QueryResponse p : client.queryPaginator(req)) {
+                for (Map<String, AttributeValue> item : p.items()) {
+                    result.add(ItemMapper.toInformation(item));
                     if (result.size() >= limit) break;
                 }
                 if (result.size() >= limit) break;
@@ -49,20 +69,19 @@ public class InformationRepository {
             result.removeIf(i -> i.getName() == null || !i.getName().trim().equals(term));
             return result;
         } else {
-            Expression filter = Expression.builder()
-                    .expression("contains(#n, :term)")
-                    .putExpressionName("#n", "Name")
-                    .putExpressionValue(":term", AttributeValue.builder().s(term).build())
-                    .build();
-
-            SdkIterable<Page<Information>> pages = nameIndex.scan(r -> r
-                    .filterExpression(filter)
+            ScanRequest req = ScanRequest.builder()
+                    .tableName(TABLE_NAME)
+                    .indexName(NAME_INDEX)
+                    .filterExpression("contains(#n, :term)")
+                    .expressionAttributeNames(names)
+                    .expressionAttributeValues(values)
+                    .projectionExpression(proj)
                     .limit(limit * 5)
-            );
+                    .build();
 
-            for (Page<Information> p : pages) {
-                for (Information item : p.items()) {
-                    result.add(item);
+            for (ScanResponse p : client.scanPaginator(req)) {
+                for (Map<String, AttributeValue> item : p.items()) {
+                    result.add(ItemMapper.toInformation(item));
                     if (result.size() >= limit) break;
                 }
                 if (result.size() >= limit) break;
@@ -71,36 +90,77 @@ public class InformationRepository {
         }
     }
 
-    public List<Information> queryByRegion(String region, int limit) {
-        Key key = Key.builder().partitionValue(region).build();
-        List<Information> result = new ArrayList<>();
-
-        SdkIterable<Page<Information>> pages = typeIndex.query(r -> r
-                .queryConditional(QueryConditional.keyEqualTo(key))
+    public List<Information> queryByRegion(String region, int limit, String... attributes) {
+        Map<String, String> names = new HashMap<>();
+        names.put("#t", Information.ATTR_TYPE);
+        Map<String, AttributeValue> values = new HashMap<>();
+        values.put(":region", AttributeValue.builder().s(region).build());
+
+        QueryRequest req = QueryRequest.builder()
+                .tableName(TABLE_NAME)
+                .indexName(TYPE_INDEX)
+                .keyConditionExpression("#t = :region")
+                .projectionExpression(ItemMapper.projection(attributes, names))
+                .expressionAttributeNames(names)
+                .expressionAttributeValues(values)
                 .limit(limit * 5)
-        );
+                .build();
 
-        for (Page<Information> p : pages) {
-            for (Information item : p.items()) {
-                result.add(item);
+        List<Information> result = new ArrayList<>();
+        for (QueryResponse p : client.queryPaginator(req)) {
+            for (Map<String, AttributeValue> item : p.items()) {
+                result.add(ItemMapper.toInformation(item));
             }
         }
         return result;
     }
-    
-    public Information queryById(String id) {
-        Key key = Key.builder().partitionValue(id).build();
 
-        SdkIterable<Page<Information>> pages = table.query(r -> r
-                .queryConditional(QueryConditional.keyEqualTo(key))
+    public Information queryById(String id, String... attributes) {
+        Map<String, String> names = new HashMap<>();
+        names.put("#id", Information.ATTR_ID);
+        Map<String, AttributeValue> values = new HashMap<>();
+        values.put(":id", AttributeValue.builder().s(id).build());
+
+        QueryRequest req = QueryRequest.builder()
+                .tableName(TABLE_NAME)
+                .keyConditionExpression("#id = :id")
+                .projectionExpression(ItemMapper.projection(attributes, names))
+                .expressionAttributeNames(names)
+                .expressionAttributeValues(values)
                 .limit(1)
-        );
+                .build();
 
-        for (Page<Information> p : pages) {
-            for (Information item : p.items()) {
-                return item;
+        for (QueryResponse p : client.queryPaginator(req)) {
+            for (Map<String, AttributeValue> item : p.items()) {
+                return ItemMapper.toInformation(item);
             }
         }
         return null;
     }
+
+    public List<Information> scanAll(String... attributes) {
+        Map<String, String> names = new HashMap<>();
+        ScanRequest.Builder req = ScanRequest.builder()
+                .tableName(TABLE_NAME)
+                .projectionExpression(ItemMapper.projection(attributes, names));
+        if (!names.isEmpty()) {
+            req.expressionAttributeNames(names);
+        }
+
+        List<Information> result = new ArrayList<>();
+        for (ScanResponse p : client.scanPaginator(req.build())) {
+            for (Map<String, AttributeValue> item : p.items()) {
+                result.add(ItemMapper.toInformation(item));
+            }
+        }
+        return result;
+    }
+
+    public Set<String> scanIds() {
+        Set<String> result = new LinkedHashSet<>();
+        for (Information i : scanAll(Information.ATTR_ID)) {
+            if (i.getId() != null) result.add(i.getId());
+        }
+        return result;
+    }
 }
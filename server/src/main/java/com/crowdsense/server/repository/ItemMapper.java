@@ -0,0 +1,76 @@
+package com.crowdsense.server.repository;
+
+import com.crowdsense.server.model.Information;
+import com.crowdsense.server.model.Scan;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+
+import java.util.Map;
+
+// Hand-written replacement for TableSchema.fromBean on the read path. Attributes that were not
+// projected are left null.
+final class ItemMapper {
+
+    private ItemMapper() { }
+
+    static Scan toScan(String id, Map<String, AttributeValue> item) {
+        Scan s = new Scan();
+        s.setId(id != null ? id : str(item, Scan.ATTR_ID));
+        s.setTimestamp(num(item, Scan.ATTR_TIMESTAMP));
+        s.setCount(integer(item, Scan.ATTR_COUNT));
+        s.setRssi(integer(item, Scan.ATTR_RSSI));
+        return s;
+    }
+
+    static void appendTo(ScanColumns out, Map<String, AttributeValue> item) {
+        long ts = Long.parseLong(item.get(Scan.ATTR_TIMESTAMP).n());
+        AttributeValue ct = item.get(Scan.ATTR_COUNT);
+        if (ct != null && ct.n() != null) out.count().add(ts, Integer.parseInt(ct.n()));
+        AttributeValue rs = item.get(Scan.ATTR_RSSI);
+        if (rs != null && rs.n() != null) out.rssi().add(ts, Integer.parseInt(rs.n()));
+    }
+
+    static Information toInformation(Map<String, AttributeValue> item) {
+        Information i = new Information();
+        i.setId(str(item, Information.ATTR_ID));
+        i.setType(str(item, Information.ATTR_TYPE));
+        i.setName(str(item, Information.ATTR_NAME));
+        i.setLatitude(dbl(item, Information.ATTR_LATITUDE));
+        i.setLongitude(dbl(item, Information.ATTR_LONGITUDE));
+        i.setRadius(integer(item, Information.ATTR_RADIUS));
+        return i;
+    }
+
+    // Builds "#p0, #p1, ..." and registers the placeholders in names; returns null for "all attributes".
+    static String projection(String[] attributes, Map<String, String> names) {
+        if (attributes == null || attributes.length == 0) return null;
+
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < attributes.length; i++) {
+            String placeholder = "#p" + i;
+            names.put(placeholder, attributes[i]);
+            if (sb.length() > 0) sb.append(", ");
+            sb.append(placeholder);
+        }
+        return sb.toString();
+    }
+
+    private static String str(Map<String, AttributeValue> item, String name) {
+        AttributeValue v = item.get(name);
+        return v == null ? null : v.s();
+    }
+
+    private static Long num(Map<String, AttributeValue> item, String name) {
+        AttributeValue v = item.get(name);
+        return (v == null || v.n() == null) ? null : Long.valueOf(v.n());
+    }
+
+    private static Integer integer(Map<String, AttributeValue> item, String name) {
+        AttributeValue v = item.get(name);
+        return (v == null || v.n() == null) ? null : Integer.valueOf(v.n());
+    }
+
+    private static Double dbl(Map<String, AttributeValue> item, String name) {
+        AttributeValue v = item.get(name);
+        return (v == null || v.n() == null) ? null : Double.valueOf(v.n());
+    }
+}
@@ -0,0 +1,165 @@
+package com.crowdsense.server.repository;
+
+import com.crowdsense.server.model.Scan;
+
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+/*
+ * Columnar block layout (unsigned varints for version and size, zigzag varints for the rest):
+ *   version, size,
+ *   timestamps : first, first delta, then delta-of-delta
+ *   counts     : 0 for null, otherwise (delta to previous non-null) + 1
+ *   rssi       : same as counts
+ * Scans must be sorted by timestamp.
+ */
+final class ScanBlockCodec {
+
+    private static final int VERSION = 1;
+
+    private ScanBlockCodec() { }
+
+    static byte[] encode(List<Scan> scans) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(scans.size() * 3 + 8);
+        writeVarint(out, VERSION);
+        writeVarint(out, scans.size());
+
+        long prevTs = 0;
+        long prevDelta = 0;
+        for (int i = 0; i < scans.size(); i++) {
+            long ts = scans.get(i).getTimestamp();
+            if (i == 0) {
+                writeVarint(out, zigzag(ts));
+            } else {
+                long delta = ts - prevTs;
+                writeVarint(out, zigzag(i == 1 ? delta : delta - prevDelta));
+                prevDelta = delta;
+            }
+            prevTs = ts;
+        }
+
+        long prev = 0;
+        for (Scan s : scans) {
+            prev = writeNullable(out, s.getCount(), prev);
+        }
+        prev = 0;
+        for (Scan s : scans) {
+            prev = writeNullable(out, s.getRssi(), prev);
+        }
+        return out.toByteArray();
+    }
+
+    static List<Scan> decode(String id, byte[] data) {
+        Decoded d = decodeColumns(data, true);
+
+        List<Scan> result = new ArrayList<>(d.size);
+        for (int i = 0; i < d.size; i++) {
+            Scan s = new Scan();
+            s.setId(id);
+            s.setTimestamp(d.timestamps[i]);
+            if (d.hasCount[i]) s.setCount(d.counts[i]);
+            if (d.hasRssi[i]) s.setRssi(d.rssi[i]);
+            result.add(s);
+        }
+        return result;
+    }
+
+    // count / rssi select the series to fill; the RSSI column is not decoded unless requested.
+    static void decodeInto(byte[] data, long from, long to, boolean count, boolean rssi, ScanColumns out) {
+        Decoded d = decodeColumns(data, rssi);
+
+        for (int i = 0; i < d.size; i++) {
+            long ts = d.timestamps[i];
+            if (ts < from || ts > to) continue;
+            if (count && d.hasCount[i]) out.count().add(ts, d.counts[i]);
+            if (rssi && d.hasRssi[i]) out.rssi().add(ts, d.rssi[i]);
+        }
+    }
+
+    private static final class Decoded {
+        int size;
+        long[] timestamps;
+        int[] counts;
+        int[] rssi;
+        boolean[] hasCount;
+        boolean[] hasRssi;
+    }
+
+    private static Decoded decodeColumns(byte[] data, boolean withRssi) {
+        int[] pos = {0};
+        int version = (int) readVarint(data, pos);
+        if (version != VERSION) {
+            throw new IllegalStateException("Unsupported scan block version: " + version);
+        }
+
+        Decoded d = new Decoded();
+        d.size = (int) readVarint(data, pos);
+        d.timestamps = new long[d.size];
+        d.counts = new int[d.size];
+        d.hasCount = new boolean[d.size];
+
+        long ts = 0;
+        long delta = 0;
+        for (int i = 0; i < d.size; i++) {
+            long v = unzigzag(readVarint(data, pos));
+            if (i == 0) {
+                ts = v;
+            } else {
+                delta = (i == 1) ? v : delta + v;
+                ts += delta;
+            }
+            d.timestamps[i] = ts;
+        }
+        readNullable(data, pos, d.counts, d.hasCount);
+        if (withRssi) {
+            d.rssi = new int[d.size];
+            d.hasRssi = new boolean[d.size];
+            readNullable(data, pos, d.rssi, d.hasRssi);
+        }
+        return d;
+    }
+
+    private static void readNullable(byte[] data, int[] pos, int[] values, boolean[] present) {
+        long prev = 0;
+        for (int i = 0; i < values.length; i++) {
+            long raw = readVarint(data, pos);
+            if (raw != 0) {
+                prev += unzigzag(raw - 1);
+                values[i] = (int) prev;
+                present[i] = true;
+            }
+        }
+    }
+
+    private static long writeNullable(ByteArrayOutputStream out, Integer value, long prev) {
+        if (value == null) {
+            writeVarint(out, 0);
+            return prev;
+        }
+        writeVarint(out, zigzag(value - prev) + 1);
+        return value;
+    }
+
+    private static long zigzag(long v) { return (v << 1) ^ (v >> 63); }
+    private static long unzigzag(long v) { return (v >>> 1) ^ -(v & 1); }
+
+    private static void writeVarint(ByteArrayOutputStream out, long v) {
+        while ((v & ~0x7FL) != 0) {
+            out.write((int) ((v & 0x7F) | 0x80));
+            v >>>= 7;
+        }
+        out.write((int) v);
+    }
+
+    private static long readVarint(byte[] data, int[] pos) {
+        long result = 0;
+        int shift = 0;
+        while (true) {
+            byte b = data[pos[0]++];
+            result |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) return result;
+            shift += 7;
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package com.crowdsense.server.repository;
+
+import java.util.Arrays;
+
+// Primitive columnar view of a scan range. Each attribute keeps its own series with null readings
+// dropped, so aggregation kernels never branch on missing values. Series are filled in timestamp
+// order by ScanRepository.
+public final class ScanColumns {
+
+    public static final class Series {
+        private long[] timestamps = new long[256];
+        private int[] values = new int[256];
+        private int size;
+
+        void add(long timestamp, int value) {
+            if (size == values.length) {
+                timestamps = Arrays.copyOf(timestamps, size * 2);
+                values = Arrays.copyOf(values, size * 2);
+            }
+            timestamps[size] = timestamp;
+            values[size] = value;
+            size++;
+        }
+
+        public long[] timestamps() { return timestamps; }
+        public int[] values() { return values; }
+        public int size() { return size; }
+    }
+
+    private final Series count = new Series();
+    private final Series rssi = new Series();
+
+    public Series count() { return count; }
+    public Series rssi() { return rssi; }
+}
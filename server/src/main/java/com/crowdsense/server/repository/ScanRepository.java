@@ -1,75 +1,267 @@
 package com.crowdsense.server.repository;
 
 import com.crowdsense.server.model.Scan;
-import com.crowdsense.server.repository.ScanRepository.ScanPoint;
+import com.crowdsense.server.model.ScanBlock;
 
 import org.springframework.stereotype.Repository;
+import software.amazon.awssdk.core.SdkBytes;
 import software.amazon.awssdk.enhanced.dynamodb.*;
 import software.amazon.awssdk.enhanced.dynamodb.model.*;
 import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
 import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.BatchWriteItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.BatchWriteItemResponse;
+import software.amazon.awssdk.services.dynamodb.model.ConditionalCheckFailedException;
 import software.amazon.awssdk.services.dynamodb.model.QueryRequest;
 import software.amazon.awssdk.services.dynamodb.model.QueryResponse;
+import software.amazon.awssdk.services.dynamodb.model.ResourceNotFoundException;
+import software.amazon.awssdk.services.dynamodb.model.WriteRequest;
 
+import java.time.Instant;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 @Repository
 public class ScanRepository {
 
-    private final DynamoDbEnhancedClient enhanced;
+    // Raw rows older than RAW_RETENTION_SECONDS are packed into UTC-aligned blocks of BLOCK_SECONDS.
+    public static final long BLOCK_SECONDS = 86400L;
+    public static final long RAW_RETENTION_SECONDS = 86400L;
+
+    private static final String TABLE_NAME = "ScanTable";
+    private static final long ARCHIVE_RECHECK_SECONDS = 600L;
+    private static final int BATCH_WRITE_LIMIT = 25;
+    static final int BATCH_WRITE_RETRIES = 8;
+    private static final long BATCH_WRITE_BACKOFF_MS = 50L;
+    static final int ARCHIVE_ATTEMPTS = 3;
+
     private final DynamoDbClient raw;
-    private final DynamoDbTable<Scan> table;
+    private final DynamoDbTable<ScanBlock> blockTable;
+    long batchWriteBackoffMs = BATCH_WRITE_BACKOFF_MS;
 
-    public static record ScanPoint(long timestamp, Integer count) {}
+    // Archive reads are paused for ARCHIVE_RECHECK_SECONDS after ScanBlockTable turns out to be missing.
+    private volatile long archiveMissingUntil;
 
     public ScanRepository(DynamoDbEnhancedClient enhanced, DynamoDbClient raw) {
-        this.enhanced = enhanced;
         this.raw = raw;
-        this.table = enhanced.table("ScanTable", TableSchema.fromBean(Scan.class));
+        this.blockTable = enhanced.table("ScanBlockTable", TableSchema.fromBean(ScanBlock.class));
     }
 
-    public List<Scan> queryBetween(String id, long from, long to) {
-        Key startKey = Key.builder().partitionValue(id).sortValue(from).build();
-        Key endKey = Key.builder().partitionValue(id).sortValue(to).build();
-
+    // attributes: Scan.ATTR_* to read, empty for all. Id and Timestamp are always populated.
+    public List<Scan> queryBetween(String id, long from, long to, String... attributes) {
         List<Scan> result = new ArrayList<>();
+        streamBetween(id, from, to, result::addAll, attributes);
+        return result;
+    }
+
+    // Feeds [from, to] to sink one archived block or raw result page at a time, in timestamp order,
+    // reading the next chunk only after sink returns.
+    public void streamBetween(String id, long from, long to, Consumer<List<Scan>> sink, String... attributes) {
+        long rawFrom = readArchive(id, from, to, data -> {
+            List<Scan> chunk = ScanBlockCodec.decode(id, data);
+            chunk.removeIf(s -> s.getTimestamp() < from || s.getTimestamp() > to);
+            if (!chunk.isEmpty()) sink.accept(chunk);
+        });
+        if (rawFrom > to) return;
+
+        queryRaw(id, rawFrom, to, attributes, 0, page -> {
+            List<Scan> chunk = new ArrayList<>(page.size());
+            for (Map<String, AttributeValue> item : page) {
+                chunk.add(ItemMapper.toScan(id, item));
+            }
+            sink.accept(chunk);
+        });
+    }
 
-        table.query(r -> r.queryConditional(QueryConditional.sortBetween(startKey, endKey)))
-             .items().forEach(result::add);
+    // Decodes [from, to] straight into primitive columns, without per-row Scan objects.
+    // attributes: Scan.ATTR_COUNT and/or Scan.ATTR_RSSI, empty for both.
+    public ScanColumns queryColumns(String id, long from, long to, String... attributes) {
+        ScanColumns result = new ScanColumns();
+        List<String> requested = List.of(attributes);
+        boolean count = requested.isEmpty() || requested.contains(Scan.ATTR_COUNT);
+        boolean rssi = requested.isEmpty() || requested.contains(Scan.ATTR_RSSI);
 
+        long rawFrom = readArchive(id, from, to, data -> ScanBlockCodec.decodeInto(data, from, to, count, rssi, result));
+        if (rawFrom > to) return result;
+
+        queryRaw(id, rawFrom, to, attributes, 0, page -> {
+            for (Map<String, AttributeValue> item : page) {
+                ItemMapper.appendTo(result, item);
+            }
+        });
         return result;
     }
 
-    public List<ScanPoint> queryBetweenProjected(String id, long from, long to) {
+    public Long earliestTimestamp(String id) {
+        Long[] first = { null };
+        queryRaw(id, Long.MIN_VALUE, Long.MAX_VALUE, new String[] { Scan.ATTR_TIMESTAMP }, 1, page -> {
+            if (first[0] == null) first[0] = Long.valueOf(page.get(0).get(Scan.ATTR_TIMESTAMP).n());
+        });
+        return first[0];
+    }
+
+    // Packs raw rows of [blockStart, blockStart + BLOCK_SECONDS) into one block item, merging any
+    // existing block for that window (late arrivals), then deletes the packed rows. Blocks only grow,
+    // so Size doubles as a version: the put is conditional on the Size that was merged, and a
+    // concurrent compactor that lost the race re-reads and merges again.
+    public int archiveBlock(String id, long blockStart) {
+        for (int attempt = 0; attempt < ARCHIVE_ATTEMPTS; attempt++) {
+            try {
+                return tryArchiveBlock(id, blockStart);
+            } catch (ConditionalCheckFailedException e) {
+                // another instance wrote this block first
+            }
+        }
+        throw new IllegalStateException("Scan block " + id + "/" + blockStart + " kept changing during compaction");
+    }
+
+    private int tryArchiveBlock(String id, long blockStart) {
+        long blockEnd = blockStart + BLOCK_SECONDS;
+
+        List<Scan> rows = new ArrayList<>();
+        queryRaw(id, blockStart, blockEnd - 1, new String[0], 0, page -> {
+            for (Map<String, AttributeValue> item : page) {
+                rows.add(ItemMapper.toScan(id, item));
+            }
+        });
+        if (rows.isEmpty()) return 0;
+
+        TreeMap<Long, Scan> merged = new TreeMap<>();
+        ScanBlock existing = blockTable.getItem(r -> r
+                .key(Key.builder().partitionValue(id).sortValue(blockStart).build())
+                .consistentRead(true));
+        if (existing != null && existing.getData() != null) {
+            for (Scan s : ScanBlockCodec.decode(id, existing.getData().asByteArray())) {
+                merged.put(s.getTimestamp(), s);
+            }
+        }
+        for (Scan s : rows) {
+            merged.put(s.getTimestamp(), s);
+        }
+
+        List<Scan> packed = new ArrayList<>(merged.values());
+        ScanBlock block = new ScanBlock();
+        block.setId(id);
+        block.setStart(blockStart);
+        block.setEnd(blockEnd);
+        block.setSize(packed.size());
+        block.setData(SdkBytes.fromByteArray(ScanBlockCodec.encode(packed)));
+
+        Expression condition = (existing == null)
+                ? Expression.builder()
+                        .expression("attribute_not_exists(#id)")
+                        .putExpressionName("#id", "Id")
+                        .build()
+                : Expression.builder()
+                        .expression("#sz = :size")
+                        .putExpressionName("#sz", "Size")
+                        .putExpressionValue(":size", AttributeValue.builder().n(String.valueOf(existing.getSize())).build())
+                        .build();
+        blockTable.putItem(PutItemEnhancedRequest.builder(ScanBlock.class).item(block).conditionExpression(condition).build());
+
+        deleteRows(rows);
+        return rows.size();
+    }
+
+    // Low-level paginated query over raw rows, bypassing bean mapping. Timestamp is always projected;
+    // maxItems > 0 stops after the first page of that size.
+    private void queryRaw(String id, long from, long to, String[] attributes, int maxItems,
+                          Consumer<List<Map<String, AttributeValue>>> pageSink) {
         Map<String, String> names = new HashMap<>();
-        names.put("#id", "Id");
-        names.put("#ts", "Timestamp");
-        names.put("#ct", "Count");
+        names.put("#id", Scan.ATTR_ID);
+        names.put("#ts", Scan.ATTR_TIMESTAMP);
 
         Map<String, AttributeValue> values = new HashMap<>();
         values.put(":idVal", AttributeValue.builder().s(id).build());
         values.put(":fromVal", AttributeValue.builder().n(Long.toString(from)).build());
         values.put(":toVal", AttributeValue.builder().n(Long.toString(to)).build());
 
-        QueryRequest req = QueryRequest.builder()
-                .tableName("ScanTable")
-                .keyConditionExpression("#id = :idVal AND #ts BETWEEN :fromVal AND :toVal")
-                .expressionAttributeNames(names)
-                .expressionAttributeValues(values)
-                .projectionExpression("#ts, #ct")
-                .build();
-
-        QueryResponse resp = raw.query(req);
-
-        return resp.items().stream().map(item -> {
-            long ts = Long.parseLong(item.get("Timestamp").n());
-            AttributeValue ctAttr = item.get("Count");
-            Integer ct = (ctAttr == null || ctAttr.n() == null) ? null : Integer.valueOf(ctAttr.n());
-            return new ScanPoint(ts, ct);
-        }).collect(Collectors.toList());
+        QueryRequest.Builder req = QueryRequest.builder()
+                .tableName(TABLE_NAME)
+                .keyConditionExpression("#id = :idVal AND #ts BETWEEN :fromVal AND :toVal");
+
+        if (attributes.length > 0) {
+            Set<String> projected = new LinkedHashSet<>(List.of(attributes));
+            projected.remove(Scan.ATTR_ID);
+            projected.remove(Scan.ATTR_TIMESTAMP);
+            String proj = ItemMapper.projection(projected.toArray(new String[0]), names);
+            req.projectionExpression(proj == null ? "#ts" : "#ts, " + proj);
+        }
+        if (maxItems > 0) {
+            req.limit(maxItems);
+        }
+        req.expressionAttributeNames(names).expressionAttributeValues(values);
+
+        for (QueryResponse page : raw.queryPaginator(req.build())) {
+            if (!page.items().isEmpty()) pageSink.accept(page.items());
+            if (maxItems > 0) break;
+        }
+    }
+
+    // Hands the encoded archived blocks overlapping [from, to] to sink in order and returns the
+    // timestamp from which raw rows still have to be read.
+    private long readArchive(String id, long from, long to, Consumer<byte[]> sink) {
+        long now = Instant.now().getEpochSecond();
+        if (now < archiveMissingUntil) return from;
+        if (from >= now - RAW_RETENTION_SECONDS) return from;
+
+        long firstBlock = Math.floorDiv(from, BLOCK_SECONDS) * BLOCK_SECONDS;
+        Key startKey = Key.builder().partitionValue(id).sortValue(firstBlock).build();
+        Key endKey = Key.builder().partitionValue(id).sortValue(to).build();
+
+        long covered = from;
+        try {
+            for (ScanBlock b : blockTable.query(r -> r.queryConditional(QueryConditional.sortBetween(startKey, endKey))).items()) {
+                if (b.getData() == null) continue;
+                sink.accept(b.getData().asByteArray());
+                covered = Math.max(covered, b.getEnd());
+            }
+        } catch (ResourceNotFoundException e) {
+            archiveMissingUntil = now + ARCHIVE_RECHECK_SECONDS;
+            return from;
+        }
+        return covered;
+    }
+
+    private void deleteRows(List<Scan> rows) {
+        for (int i = 0; i < rows.size(); i += BATCH_WRITE_LIMIT) {
+            List<WriteRequest> batch = rows.subList(i, Math.min(i + BATCH_WRITE_LIMIT, rows.size())).stream()
+                    .map(s -> WriteRequest.builder().deleteRequest(d -> d.key(Map.of(
+                            Scan.ATTR_ID, AttributeValue.builder().s(s.getId()).build(),
+                            Scan.ATTR_TIMESTAMP, AttributeValue.builder().n(Long.toString(s.getTimestamp())).build())))
+                            .build())
+                    .collect(Collectors.toList());
+
+            for (int attempt = 0; !batch.isEmpty(); attempt++) {
+                if (attempt > BATCH_WRITE_RETRIES) {
+                    throw new IllegalStateException(batch.size() + " scan rows left undeleted after throttling");
+                }
+                if (attempt > 0) {
+                    backoff(attempt);
+                }
+
+                BatchWriteItemResponse res = raw.batchWriteItem(BatchWriteItemRequest.builder()
+                        .requestItems(Map.of(TABLE_NAME, batch))
+                        .build());
+                batch = res.unprocessedItems().getOrDefault(TABLE_NAME, List.of());
+            }
+        }
+    }
+
+    private void backoff(int attempt) {
+        long delay = batchWriteBackoffMs << Math.min(attempt - 1, 6);
+        try {
+            Thread.sleep(delay + (long) (Math.random() * delay));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while deleting archived scan rows", e);
+        }
     }
 }
@@ -12,4 +12,5 @@ public interface BeaconService {
     BeaconSummary getBeaconById(String id);
     double getCrowdAverage(String id, int minutes);
     CrowdStatResponse getCrowdStat(String id, int periodDays);
+    BucketStats getHourlyStats(String id, long start, int hours);
 }
@@ -5,6 +5,7 @@ import com.crowdsense.server.dto.response.CrowdStatResponse;
 import com.crowdsense.server.model.Information;
 import com.crowdsense.server.model.Scan;
 import com.crowdsense.server.repository.InformationRepository;
+import com.crowdsense.server.repository.ScanColumns;
 import com.crowdsense.server.repository.ScanRepository;
 import org.springframework.stereotype.Service;
 
@@ -65,17 +66,10 @@ public class BeaconServiceImpl implements BeaconService {
         long now = Instant.now().getEpochSecond();
         long from = now - (minutes * 60L);
 
-        List<Scan> scans = scanRepo.queryBetween(id, from, now);
+        ScanColumns.Series counts = scanRepo.queryColumns(id, from, now, Scan.ATTR_COUNT).count();
+        BucketStats stats = BucketStats.aggregate(counts, from, now - from + 1, 1);
 
-        long sum = 0;
-        long cnt = 0;
-        for (Scan s : scans) {
-            if (s.getCount() != null) {
-                sum += s.getCount();
-                cnt++;
-            }
-        }
-        return cnt == 0 ? 0.0 : (double) sum / cnt;
+        return stats.mean(0);
     }
 
     @Override
@@ -87,31 +81,25 @@ public class BeaconServiceImpl implements BeaconService {
 
         int hours = periodDays * 24;
         long start = nowHourFloor - (hours * 3600L);
-        long endExclusive = nowHourFloor;
-        long endInclusive = endExclusive - 1;
-
-        var points = scanRepo.queryBetweenProjected(id, start, endInclusive);
-
-        double[] sum = new double[hours];
-        int[] cnt = new int[hours];
-        for (ScanRepository.ScanPoint p : points) {
-            if (p.count() == null) continue;
-            long ts = p.timestamp();
-            if (ts < start || ts >= endExclusive) continue;
-            int bucket = (int)((ts - start) / 3600L);
-            if (bucket < 0 || bucket >= hours) continue;
-            sum[bucket] += p.count();
-            cnt[bucket] += 1;
-        }
+
+        BucketStats stats = getHourlyStats(id, start, hours);
 
         ArrayList<Double> list = new ArrayList<>(hours);
         for (int i = 0; i < hours; i++) {
-            list.add(cnt[i] == 0 ? 0.0 : (sum[i] / cnt[i]));
+            list.add(stats.mean(i));
         }
 
         return new CrowdStatResponse(list, start);
     }
 
+    @Override
+    public BucketStats getHourlyStats(String id, long start, int hours) {
+        long endInclusive = start + (hours * 3600L) - 1;
+
+        ScanColumns.Series counts = scanRepo.queryColumns(id, start, endInclusive, Scan.ATTR_COUNT).count();
+        return BucketStats.aggregate(counts, start, 3600L, hours);
+    }
+
     private record Dist(Information info, double distance) {}
     private static double distanceMeters(double lat1, double lon1, double lat2, double lon2) {
         final double R = 6371000.0;
@@ -0,0 +1,57 @@
+package com.crowdsense.server.service;
+
+import com.crowdsense.server.repository.ScanColumns;
+
+// Per-bucket sum/count over a primitive (timestamp, value) series, buckets being
+// [start + i * width, start + (i + 1) * width). Timestamps must be in ascending order,
+// as ScanRepository.queryColumns produces them; each bucket is reduced as one contiguous slice.
+public final class BucketStats {
+
+    private final long[] sum;
+    private final int[] count;
+
+    private BucketStats(int buckets) {
+        this.sum = new long[buckets];
+        this.count = new int[buckets];
+    }
+
+    public static BucketStats aggregate(ScanColumns.Series series, long start, long width, int buckets) {
+        return aggregate(series.timestamps(), series.values(), series.size(), start, width, buckets);
+    }
+
+    public static BucketStats aggregate(long[] ts, int[] values, int n, long start, long width, int buckets) {
+        BucketStats stats = new BucketStats(buckets);
+        stats.reduce(ts, values, n, start, width);
+        return stats;
+    }
+
+    public int buckets() { return sum.length; }
+    public long sum(int bucket) { return sum[bucket]; }
+    public int count(int bucket) { return count[bucket]; }
+    public double mean(int bucket) { return count[bucket] == 0 ? 0.0 : (double) sum[bucket] / count[bucket]; }
+
+    private void reduce(long[] ts, int[] values, int n, long start, long width) {
+        int lo = lowerBound(ts, 0, n, start);
+        for (int b = 0; b < sum.length && lo < n; b++) {
+            int hi = lowerBound(ts, lo, n, start + (b + 1) * width);
+
+            long s = 0;
+            for (int i = lo; i < hi; i++) s += values[i];
+            sum[b] = s;
+            count[b] = hi - lo;
+            lo = hi;
+        }
+    }
+
+    // First index in [from, to) with ts[index] >= key.
+    private static int lowerBound(long[] ts, int from, int to, long key) {
+        int lo = from;
+        int hi = to;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (ts[mid] < key) lo = mid + 1;
+            else hi = mid;
+        }
+        return lo;
+    }
+}
@@ -0,0 +1,8 @@
+package com.crowdsense.server.service;
+
+import com.crowdsense.server.dto.response.CrowdForecastResponse;
+
+public interface CrowdForecastService {
+    CrowdForecastResponse getForecast(String id, int hours);
+    void refresh();
+}
@@ -0,0 +1,200 @@
+package com.crowdsense.server.service;
+
+import com.crowdsense.server.dto.response.CrowdForecastResponse;
+import com.crowdsense.server.model.Information;
+import com.crowdsense.server.repository.InformationRepository;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Per-beacon hour-of-week profile: each of the 168 slots is an exponentially smoothed mean of the
+// hourly crowd averages that fell into it. refresh() only feeds hours completed since the previous
+// fit, so a steady-state run reads one hour per beacon; forecasts are slot lookups. A beacon with no
+// profile yet (e.g. right after a restart, before the first refresh reaches it) answers 404 while its
+// 28-day backfill is scheduled on the fit pool; at most one fit per beacon is queued or running.
+@Service
+public class CrowdForecastServiceImpl implements CrowdForecastService {
+
+    private static final Logger log = LoggerFactory.getLogger(CrowdForecastServiceImpl.class);
+
+    static final int HOURS_PER_WEEK = 168;
+    static final float ALPHA = 0.3f;
+    private static final int FIT_DAYS = 28;
+    private static final int FIT_THREADS = 4;
+
+    private final InformationRepository infoRepo;
+    private final BeaconService beaconService;
+    private final Map<String, Profile> profiles = new ConcurrentHashMap<>();
+    private final Map<String, CompletableFuture<Void>> fitting = new ConcurrentHashMap<>();
+    private final ExecutorService fitPool;
+
+    // slots are indexed by epoch hour mod 168 (UTC); NaN marks a slot with no observations yet.
+    private record Profile(float[] slots, float fallback, long fittedUntil) {}
+
+    public CrowdForecastServiceImpl(InformationRepository infoRepo, BeaconService beaconService) {
+        this.infoRepo = infoRepo;
+        this.beaconService = beaconService;
+        AtomicInteger seq = new AtomicInteger();
+        this.fitPool = Executors.newFixedThreadPool(FIT_THREADS, r -> {
+            Thread t = new Thread(r, "crowd-forecast-" + seq.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        fitPool.shutdownNow();
+    }
+
+    @Override
+    public CrowdForecastResponse getForecast(String id, int hours) {
+        Profile p = profiles.get(id);
+        if (p == null) {
+            warm(id);
+            return null;
+        }
+
+        long startHour = Math.floorDiv(Instant.now().getEpochSecond(), 3600L);
+        List<Double> list = new ArrayList<>(hours);
+        for (int i = 0; i < hours; i++) {
+            float v = p.slots()[slot(startHour + i)];
+            list.add((double) (Float.isNaN(v) ? p.fallback() : v));
+        }
+        return new CrowdForecastResponse(list, startHour * 3600L, p.fittedUntil());
+    }
+
+    @Override
+    @Scheduled(
+        initialDelayString = "${crowdsense.forecast.initial-delay-ms:30000}",
+        fixedDelayString = "${crowdsense.forecast.refresh-ms:3600000}"
+    )
+    public void refresh() {
+        Set<String> ids;
+        try {
+            ids = infoRepo.scanIds();
+        } catch (RuntimeException e) {
+            log.warn("Crowd forecast refresh failed", e);
+            return;
+        }
+        profiles.keySet().retainAll(ids);
+
+        long end = currentHour();
+        List<CompletableFuture<Void>> fits = new ArrayList<>(ids.size());
+        for (String id : ids) {
+            fits.add(fitOnce(id, () -> fit(id, end)));
+        }
+
+        try {
+            CompletableFuture.allOf(fits.toArray(new CompletableFuture[0])).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            log.warn("Crowd forecast refresh failed", e);
+        }
+    }
+
+    // Schedules the backfill of a beacon that has no profile yet; unknown ids are not fitted.
+    CompletableFuture<Void> warm(String id) {
+        return fitOnce(id, () -> {
+            if (profiles.containsKey(id)) return;
+            if (infoRepo.queryById(id, Information.ATTR_ID) == null) return;
+            fit(id, currentHour());
+        });
+    }
+
+    // Runs task on the fit pool unless a fit of id is already queued or running, in which case
+    // that fit's future is returned instead. The future completes normally even if the fit fails.
+    private CompletableFuture<Void> fitOnce(String id, Runnable task) {
+        CompletableFuture<Void> f = new CompletableFuture<>();
+        CompletableFuture<Void> running = fitting.putIfAbsent(id, f);
+        if (running != null) return running;
+
+        try {
+            fitPool.execute(() -> {
+                try {
+                    task.run();
+                } catch (RuntimeException e) {
+                    log.warn("Crowd forecast fit failed for {}", id, e);
+                } finally {
+                    fitting.remove(id, f);
+                    f.complete(null);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            fitting.remove(id, f);
+            f.complete(null);
+        }
+        return f;
+    }
+
+    // Only called through fitOnce, so fits of one beacon never overlap and each starts from the
+    // profile the previous one stored.
+    private void fit(String id, long end) {
+        Profile prev = profiles.get(id);
+        long from = Math.max(end - FIT_DAYS * 24 * 3600L, prev == null ? Long.MIN_VALUE : prev.fittedUntil());
+        int hours = (int) ((end - from) / 3600L);
+        if (hours <= 0) return;
+
+        BucketStats stats = beaconService.getHourlyStats(id, from, hours);
+
+        float[] slots;
+        if (prev == null) {
+            slots = new float[HOURS_PER_WEEK];
+            Arrays.fill(slots, Float.NaN);
+        } else {
+            slots = prev.slots().clone();
+        }
+
+        update(slots, stats, from / 3600L);
+
+        profiles.put(id, new Profile(slots, fallback(slots), end));
+    }
+
+    // Feeds bucket i of stats (hour fromHour + i) into its slot; empty hours leave the slot untouched.
+    static void update(float[] slots, BucketStats stats, long fromHour) {
+        for (int i = 0; i < stats.buckets(); i++) {
+            if (stats.count(i) == 0) continue;
+            int s = slot(fromHour + i);
+            float v = (float) stats.mean(i);
+            slots[s] = Float.isNaN(slots[s]) ? v : ALPHA * v + (1 - ALPHA) * slots[s];
+        }
+    }
+
+    // Mean of the observed slots, used for slots that have never seen data.
+    static float fallback(float[] slots) {
+        double sum = 0;
+        int observed = 0;
+        for (float v : slots) {
+            if (Float.isNaN(v)) continue;
+            sum += v;
+            observed++;
+        }
+        return observed == 0 ? 0f : (float) (sum / observed);
+    }
+
+    static int slot(long epochHour) {
+        return (int) Math.floorMod(epochHour, (long) HOURS_PER_WEEK);
+    }
+
+    private static long currentHour() {
+        return Math.floorDiv(Instant.now().getEpochSecond(), 3600L) * 3600L;
+    }
+}
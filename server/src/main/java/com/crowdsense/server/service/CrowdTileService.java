@@ -0,0 +1,8 @@
+package com.crowdsense.server.service;
+
+import com.crowdsense.server.dto.response.CrowdTileResponse;
+
+public interface CrowdTileService {
+    CrowdTileResponse getTile(int z, int x, int y);
+    void refresh();
+}
@@ -0,0 +1,203 @@
+package com.crowdsense.server.service;
+
+import com.crowdsense.server.dto.response.CrowdCell;
+import com.crowdsense.server.dto.response.CrowdTileResponse;
+import com.crowdsense.server.model.Information;
+import com.crowdsense.server.repository.InformationRepository;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// Keeps per-cell crowd sums for web mercator tiles at MIN_ZOOM..MAX_ZOOM, each tile split into a
+// GRID x GRID grid. refresh() applies only the beacons whose position or crowd changed; built tile
+// responses are cached until the next time bucket.
+@Service
+public class CrowdTileServiceImpl implements CrowdTileService {
+
+    private static final Logger log = LoggerFactory.getLogger(CrowdTileServiceImpl.class);
+
+    static final int MIN_ZOOM = 6;
+    static final int MAX_ZOOM = 18;
+    static final int GRID_BITS = 4;
+    static final int GRID = 1 << GRID_BITS;
+
+    private static final int CURRENT_MINUTES = 5;
+    private static final double MAX_LAT = 85.05112878;
+
+    private final InformationRepository infoRepo;
+    private final BeaconService beaconService;
+    private final long bucketSeconds;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Long, Map<Integer, Cell>> tiles = new HashMap<>();
+    private final Map<String, BeaconState> beacons = new HashMap<>();
+    private final Map<Long, CachedTile> cache = new ConcurrentHashMap<>();
+    private volatile long updated;
+
+    private static final class Cell {
+        double crowd;
+        int beacons;
+    }
+
+    private record BeaconState(double lat, double lon, double crowd) {}
+    private record CachedTile(long bucket, CrowdTileResponse response) {}
+
+    public CrowdTileServiceImpl(InformationRepository infoRepo, BeaconService beaconService,
+                                @Value("${crowdsense.tile.refresh-ms:60000}") long refreshMs) {
+        this.infoRepo = infoRepo;
+        this.beaconService = beaconService;
+        this.bucketSeconds = Math.max(1L, refreshMs / 1000L);
+    }
+
+    @Override
+    public CrowdTileResponse getTile(int z, int x, int y) {
+        if (z < MIN_ZOOM || z > MAX_ZOOM) return null;
+        long size = 1L << z;
+        if (x < 0 || y < 0 || x >= size || y >= size) return null;
+
+        long key = tileKey(z, x, y);
+        long bucket = Instant.now().getEpochSecond() / bucketSeconds;
+
+        CachedTile cached = cache.get(key);
+        if (cached != null && cached.bucket() == bucket) {
+            return cached.response();
+        }
+
+        CrowdTileResponse res = build(z, x, y, key);
+        if (!res.getCells().isEmpty()) {
+            cache.put(key, new CachedTile(bucket, res));
+        }
+        return res;
+    }
+
+    @Override
+    @Scheduled(
+        initialDelayString = "${crowdsense.tile.initial-delay-ms:10000}",
+        fixedDelayString = "${crowdsense.tile.refresh-ms:60000}"
+    )
+    public void refresh() {
+        List<Information> infos;
+        try {
+            infos = infoRepo.scanAll(Information.ATTR_ID, Information.ATTR_LATITUDE, Information.ATTR_LONGITUDE);
+        } catch (RuntimeException e) {
+            log.warn("Crowd tile refresh failed", e);
+            return;
+        }
+
+        // beacons is only written by this method, which the scheduler never runs concurrently
+        Map<String, BeaconState> next = new HashMap<>();
+        for (Information i : infos) {
+            if (i.getId() == null || i.getLatitude() == null || i.getLongitude() == null) continue;
+
+            double crowd;
+            try {
+                crowd = beaconService.getCrowdAverage(i.getId(), CURRENT_MINUTES);
+            } catch (RuntimeException e) {
+                BeaconState prev = beacons.get(i.getId());
+                crowd = prev == null ? 0.0 : prev.crowd();
+            }
+            next.put(i.getId(), new BeaconState(i.getLatitude(), i.getLongitude(), crowd));
+        }
+
+        lock.writeLock().lock();
+        try {
+            for (Map.Entry<String, BeaconState> e : beacons.entrySet()) {
+                if (!next.containsKey(e.getKey())) apply(e.getValue(), -1);
+            }
+            for (Map.Entry<String, BeaconState> e : next.entrySet()) {
+                BeaconState prev = beacons.get(e.getKey());
+                if (Objects.equals(prev, e.getValue())) continue;
+                if (prev != null) apply(prev, -1);
+                apply(e.getValue(), 1);
+            }
+            beacons.clear();
+            beacons.putAll(next);
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        long now = Instant.now().getEpochSecond();
+        updated = now;
+        long bucket = now / bucketSeconds;
+        cache.values().removeIf(c -> c.bucket() < bucket);
+    }
+
+    private void apply(BeaconState b, int sign) {
+        double xf = lonToX(b.lon());
+        double yf = latToY(b.lat());
+
+        for (int z = MIN_ZOOM; z <= MAX_ZOOM; z++) {
+            long n = 1L << (z + GRID_BITS);
+            long cx = Math.min(n - 1, Math.max(0, (long) Math.floor(xf * n)));
+            long cy = Math.min(n - 1, Math.max(0, (long) Math.floor(yf * n)));
+
+            long key = tileKey(z, cx >> GRID_BITS, cy >> GRID_BITS);
+            int idx = (int) (((cy & (GRID - 1)) << GRID_BITS) | (cx & (GRID - 1)));
+
+            Map<Integer, Cell> tile = tiles.computeIfAbsent(key, k -> new HashMap<>());
+            Cell c = tile.computeIfAbsent(idx, k -> new Cell());
+            c.crowd += sign * b.crowd();
+            c.beacons += sign;
+            if (c.beacons <= 0) {
+                tile.remove(idx);
+                if (tile.isEmpty()) tiles.remove(key);
+            }
+        }
+    }
+
+    private CrowdTileResponse build(int z, int x, int y, long key) {
+        Map<Integer, double[]> snapshot = new TreeMap<>();
+        lock.readLock().lock();
+        try {
+            Map<Integer, Cell> tile = tiles.get(key);
+            if (tile != null) {
+                tile.forEach((idx, c) -> snapshot.put(idx, new double[] { c.crowd, c.beacons }));
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        double n = (double) (1L << (z + GRID_BITS));
+        List<CrowdCell> cells = new ArrayList<>(snapshot.size());
+        for (Map.Entry<Integer, double[]> e : snapshot.entrySet()) {
+            int cx = e.getKey() & (GRID - 1);
+            int cy = e.getKey() >>> GRID_BITS;
+            double gx = ((long) x * GRID + cx + 0.5) / n;
+            double gy = ((long) y * GRID + cy + 0.5) / n;
+            cells.add(new CrowdCell(cx, cy, yToLat(gy), gx * 360.0 - 180.0,
+                    Math.max(0.0, e.getValue()[0]), (int) e.getValue()[1]));
+        }
+        return new CrowdTileResponse(z, x, y, GRID, updated, cells);
+    }
+
+    private static long tileKey(int z, long x, long y) {
+        return ((long) z << 58) | (x << 29) | y;
+    }
+
+    private static double lonToX(double lon) {
+        return (lon + 180.0) / 360.0;
+    }
+
+    private static double latToY(double lat) {
+        double rad = Math.toRadians(Math.max(-MAX_LAT, Math.min(MAX_LAT, lat)));
+        return (1.0 - Math.log(Math.tan(rad) + 1.0 / Math.cos(rad)) / Math.PI) / 2.0;
+    }
+
+    private static double yToLat(double y) {
+        return Math.toDegrees(Math.atan(Math.sinh(Math.PI * (1.0 - 2.0 * y))));
+    }
+}
@@ -0,0 +1,54 @@
+package com.crowdsense.server.service;
+
+import com.crowdsense.server.repository.InformationRepository;
+import com.crowdsense.server.repository.ScanRepository;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+
+@Component
+@ConditionalOnProperty(name = "crowdsense.compaction.enabled", havingValue = "true", matchIfMissing = true)
+public class ScanCompactionJob {
+
+    private static final Logger log = LoggerFactory.getLogger(ScanCompactionJob.class);
+
+    private final InformationRepository infoRepo;
+    private final ScanRepository scanRepo;
+
+    public ScanCompactionJob(InformationRepository infoRepo, ScanRepository scanRepo) {
+        this.infoRepo = infoRepo;
+        this.scanRepo = scanRepo;
+    }
+
+    @Scheduled(
+        initialDelayString = "${crowdsense.compaction.interval-ms:3600000}",
+        fixedDelayString = "${crowdsense.compaction.interval-ms:3600000}"
+    )
+    public void run() {
+        long now = Instant.now().getEpochSecond();
+        long cutoff = Math.floorDiv(now - ScanRepository.RAW_RETENTION_SECONDS, ScanRepository.BLOCK_SECONDS)
+                * ScanRepository.BLOCK_SECONDS;
+
+        for (String id : infoRepo.scanIds()) {
+            try {
+                compact(id, cutoff);
+            } catch (RuntimeException e) {
+                log.warn("Scan compaction failed for {}", id, e);
+            }
+        }
+    }
+
+    private void compact(String id, long cutoff) {
+        Long first;
+        while ((first = scanRepo.earliestTimestamp(id)) != null) {
+            long blockStart = Math.floorDiv(first, ScanRepository.BLOCK_SECONDS) * ScanRepository.BLOCK_SECONDS;
+            if (blockStart + ScanRepository.BLOCK_SECONDS > cutoff) break;
+            if (scanRepo.archiveBlock(id, blockStart) == 0) break;
+        }
+    }
+}
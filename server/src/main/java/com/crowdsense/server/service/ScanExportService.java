@@ -0,0 +1,12 @@
+package com.crowdsense.server.service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+
+public interface ScanExportService {
+    enum Format { NDJSON, CSV }
+
+    List<String> resolveIds(String id, String region);
+    void export(List<String> ids, long from, long to, Format format, OutputStream out) throws IOException;
+}
@@ -0,0 +1,236 @@
+package com.crowdsense.server.service;
+
+import com.crowdsense.server.model.Information;
+import com.crowdsense.server.model.Scan;
+import com.crowdsense.server.repository.InformationRepository;
+import com.crowdsense.server.repository.ScanRepository;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+@Service
+public class ScanExportServiceImpl implements ScanExportService {
+
+    private static final int MAX_REGION_BEACONS = 500;
+    // Readers per export; each export gets its own threads, so one slow download cannot hold
+    // readers that another export is waiting on.
+    private static final int FAN_OUT = 4;
+    private static final long CHUNK_TIMEOUT_MS = 60_000L;
+    // Chunks are result pages (<= 1MB) or decoded day blocks, so this bounds buffered data per export.
+    private static final int QUEUE_CHUNKS = 8;
+    private static final int WRITE_BUFFER = 64 * 1024;
+    private static final List<Scan> END = new ArrayList<>(0);
+
+    private final InformationRepository infoRepo;
+    private final ScanRepository scanRepo;
+    private final ExecutorService pool;
+    long chunkTimeoutMs = CHUNK_TIMEOUT_MS;
+
+    // Reads one beacon's range into sink, one chunk per call.
+    interface ChunkSource {
+        void stream(String id, Consumer<List<Scan>> sink);
+    }
+
+    public ScanExportServiceImpl(InformationRepository infoRepo, ScanRepository scanRepo) {
+        this.infoRepo = infoRepo;
+        this.scanRepo = scanRepo;
+        AtomicInteger seq = new AtomicInteger();
+        this.pool = Executors.newCachedThreadPool(r -> {
+            Thread t = new Thread(r, "scan-export-" + seq.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        pool.shutdownNow();
+    }
+
+    @Override
+    public List<String> resolveIds(String id, String region) {
+        if (id != null && !id.isBlank()) {
+            return List.of(id.trim());
+        }
+        if (region == null || region.isBlank()) {
+            return List.of();
+        }
+        return infoRepo.queryByRegion(region.trim(), MAX_REGION_BEACONS, Information.ATTR_ID).stream()
+                .map(Information::getId)
+                .filter(Objects::nonNull)
+                .distinct()
+                .limit(MAX_REGION_BEACONS)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public void export(List<String> ids, long from, long to, Format format, OutputStream out) throws IOException {
+        Writer w = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), WRITE_BUFFER);
+        if (format == Format.CSV) {
+            w.write("id,timestamp,count,rssi\n");
+        }
+
+        if (ids.size() <= 1) {
+            try {
+                for (String id : ids) {
+                    scanRepo.streamBetween(id, from, to, chunk -> {
+                        try {
+                            writeChunk(w, chunk, format);
+                        } catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                    });
+                }
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+        } else {
+            fanOut(ids, (id, sink) -> scanRepo.streamBetween(id, from, to, sink), format, w);
+        }
+        w.flush();
+    }
+
+    // Beacons are read concurrently into a bounded queue and written by the calling thread; a slow
+    // client blocks the writer, which in turn blocks the readers before they fetch the next page.
+    // The writer fails the export if no chunk arrives within chunkTimeoutMs.
+    void fanOut(List<String> ids, ChunkSource source, Format format, Writer w) throws IOException {
+        BlockingQueue<List<Scan>> queue = new ArrayBlockingQueue<>(QUEUE_CHUNKS);
+        AtomicBoolean cancelled = new AtomicBoolean();
+        AtomicReference<RuntimeException> failure = new AtomicReference<>();
+        AtomicInteger next = new AtomicInteger();
+
+        int workers = Math.min(FAN_OUT, ids.size());
+        List<Future<?>> futures = new ArrayList<>(workers);
+        for (int i = 0; i < workers; i++) {
+            futures.add(pool.submit(() -> {
+                try {
+                    int idx;
+                    while (!cancelled.get() && (idx = next.getAndIncrement()) < ids.size()) {
+                        source.stream(ids.get(idx), chunk -> {
+                            // stop producing as soon as the writer gives up, not only when the queue fills
+                            if (cancelled.get()) throw new CancellationException();
+                            enqueue(queue, chunk, cancelled);
+                        });
+                    }
+                } catch (CancellationException e) {
+                    // writer gave up
+                } catch (RuntimeException e) {
+                    failure.compareAndSet(null, e);
+                    cancelled.set(true);
+                } finally {
+                    try {
+                        enqueue(queue, END, cancelled);
+                    } catch (CancellationException e) {
+                        // writer gave up
+                    }
+                }
+            }));
+        }
+
+        try {
+            int done = 0;
+            while (done < workers) {
+                List<Scan> chunk = queue.poll(chunkTimeoutMs, TimeUnit.MILLISECONDS);
+                if (chunk == null) {
+                    throw new IOException("Timed out waiting for scan pages");
+                } else if (chunk == END) {
+                    done++;
+                } else if (!cancelled.get()) {
+                    writeChunk(w, chunk, format);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Export interrupted", e);
+        } finally {
+            cancelled.set(true);
+            futures.forEach(f -> f.cancel(true));
+        }
+
+        if (failure.get() != null) {
+            throw failure.get();
+        }
+    }
+
+    private static void enqueue(BlockingQueue<List<Scan>> queue, List<Scan> chunk, AtomicBoolean cancelled) {
+        try {
+            while (!queue.offer(chunk, 1, TimeUnit.SECONDS)) {
+                if (cancelled.get()) throw new CancellationException();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CancellationException();
+        }
+    }
+
+    static void writeChunk(Writer w, List<Scan> chunk, Format format) throws IOException {
+        for (Scan s : chunk) {
+            if (format == Format.CSV) {
+                w.write(csv(s.getId()));
+                w.write(',');
+                w.write(String.valueOf(s.getTimestamp()));
+                w.write(',');
+                if (s.getCount() != null) w.write(String.valueOf(s.getCount()));
+                w.write(',');
+                if (s.getRssi() != null) w.write(String.valueOf(s.getRssi()));
+                w.write('\n');
+            } else {
+                w.write("{\"id\":");
+                w.write(json(s.getId()));
+                w.write(",\"timestamp\":");
+                w.write(String.valueOf(s.getTimestamp()));
+                w.write(",\"count\":");
+                w.write(String.valueOf(s.getCount()));
+                w.write(",\"rssi\":");
+                w.write(String.valueOf(s.getRssi()));
+                w.write("}\n");
+            }
+        }
+        w.flush();
+    }
+
+    static String csv(String v) {
+        if (v == null) return "";
+        if (v.indexOf(',') < 0 && v.indexOf('"') < 0 && v.indexOf('\n') < 0 && v.indexOf('\r') < 0) return v;
+        return '"' + v.replace("\"", "\"\"") + '"';
+    }
+
+    static String json(String v) {
+        if (v == null) return "null";
+        StringBuilder sb = new StringBuilder(v.length() + 2).append('"');
+        for (int i = 0; i < v.length(); i++) {
+            char c = v.charAt(i);
+            if (c == '"' || c == '\\') {
+                sb.append('\\').append(c);
+            } else if (c < 0x20) {
+                sb.append(String.format("\\u%04x", (int) c));
+            } else {
+                sb.append(c);
+            }
+        }
+        return sb.append('"').toString();
+    }
+}
@@ -0,0 +1,87 @@
+package com.crowdsense.server.repository;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.crowdsense.server.model.Information;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.QueryRequest;
+import software.amazon.awssdk.services.dynamodb.model.QueryResponse;
+import software.amazon.awssdk.services.dynamodb.paginators.QueryIterable;
+
+import java.util.List;
+import java.util.Map;
+
+class InformationRepositoryTests {
+
+	private final DynamoDbClient client = mock(DynamoDbClient.class);
+	private final InformationRepository repo = new InformationRepository(client);
+
+	@BeforeEach
+	void setUp() {
+		when(client.queryPaginator(any(QueryRequest.class))).thenAnswer(inv -> new QueryIterable(client, inv.getArgument(0)));
+		when(client.query(any(QueryRequest.class))).thenReturn(QueryResponse.builder()
+				.items(List.of(item("b1", "Gate"), item("b2", "Gate 2")))
+				.build());
+	}
+
+	@Test
+	void strictNameQueryProjectsName() {
+		List<Information> result = repo.queryByName("Gate", true, 10, Information.ATTR_ID);
+
+		assertEquals(1, result.size());
+		assertEquals("b1", result.get(0).getId());
+
+		QueryRequest req = sentQuery();
+		assertEquals("#p0, #p1", req.projectionExpression());
+		assertEquals(Information.ATTR_NAME, req.expressionAttributeNames().get("#p1"));
+		assertNamesUsed(req);
+	}
+
+	@Test
+	void strictNameQueryKeepsExplicitName() {
+		repo.queryByName("Gate", true, 10, Information.ATTR_ID, Information.ATTR_NAME);
+
+		QueryRequest req = sentQuery();
+		assertEquals("#p0, #p1", req.projectionExpression());
+		assertNamesUsed(req);
+	}
+
+	@Test
+	void strictNameQueryWithoutProjectionReadsAll() {
+		repo.queryByName("Gate", true, 10);
+
+		QueryRequest req = sentQuery();
+		assertNull(req.projectionExpression());
+		assertEquals(Map.of("#n", Information.ATTR_NAME), req.expressionAttributeNames());
+	}
+
+	private QueryRequest sentQuery() {
+		ArgumentCaptor<QueryRequest> captor = ArgumentCaptor.forClass(QueryRequest.class);
+		verify(client).queryPaginator(captor.capture());
+		return captor.getValue();
+	}
+
+	// DynamoDB rejects requests with unused ExpressionAttributeNames entries.
+	private static void assertNamesUsed(QueryRequest req) {
+		String expressions = req.keyConditionExpression() + " " + req.projectionExpression();
+		for (String placeholder : req.expressionAttributeNames().keySet()) {
+			assertTrue(expressions.contains(placeholder), placeholder);
+		}
+	}
+
+	private static Map<String, AttributeValue> item(String id, String name) {
+		return Map.of(
+				Information.ATTR_ID, AttributeValue.builder().s(id).build(),
+				Information.ATTR_NAME, AttributeValue.builder().s(name).build());
+	}
+}
@@ -0,0 +1,89 @@
+package com.crowdsense.server.repository;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import com.crowdsense.server.model.Information;
+import com.crowdsense.server.model.Scan;
+import org.junit.jupiter.api.Test;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+
+import java.util.HashMap;
+import java.util.Map;
+
+class ItemMapperTests {
+
+	@Test
+	void projectionRegistersPlaceholders() {
+		Map<String, String> names = new HashMap<>();
+		names.put("#n", Information.ATTR_NAME);
+
+		String proj = ItemMapper.projection(new String[] { Information.ATTR_ID, Information.ATTR_LATITUDE }, names);
+
+		assertEquals("#p0, #p1", proj);
+		assertEquals(Map.of(
+				"#n", Information.ATTR_NAME,
+				"#p0", Information.ATTR_ID,
+				"#p1", Information.ATTR_LATITUDE), names);
+	}
+
+	@Test
+	void emptyProjectionMeansAllAttributes() {
+		Map<String, String> names = new HashMap<>();
+
+		assertNull(ItemMapper.projection(new String[0], names));
+		assertNull(ItemMapper.projection(null, names));
+		assertEquals(Map.of(), names);
+	}
+
+	@Test
+	void toScanLeavesUnprojectedAttributesNull() {
+		Map<String, AttributeValue> item = Map.of(
+				Scan.ATTR_ID, AttributeValue.builder().s("b1").build(),
+				Scan.ATTR_TIMESTAMP, AttributeValue.builder().n("1750000000").build(),
+				Scan.ATTR_COUNT, AttributeValue.builder().n("4").build());
+
+		Scan s = ItemMapper.toScan(null, item);
+
+		assertEquals("b1", s.getId());
+		assertEquals(Long.valueOf(1_750_000_000L), s.getTimestamp());
+		assertEquals(Integer.valueOf(4), s.getCount());
+		assertNull(s.getRssi());
+		assertEquals("b2", ItemMapper.toScan("b2", item).getId());
+	}
+
+	@Test
+	void toInformationLeavesUnprojectedAttributesNull() {
+		Information i = ItemMapper.toInformation(Map.of(
+				Information.ATTR_ID, AttributeValue.builder().s("b1").build(),
+				Information.ATTR_LATITUDE, AttributeValue.builder().n("37.5665").build()));
+
+		assertEquals("b1", i.getId());
+		assertEquals(Double.valueOf(37.5665), i.getLatitude());
+		assertNull(i.getName());
+		assertNull(i.getType());
+		assertNull(i.getLongitude());
+		assertNull(i.getRadius());
+	}
+
+	@Test
+	void appendToDropsMissingCount() {
+		ScanColumns columns = new ScanColumns();
+
+		ItemMapper.appendTo(columns, Map.of(
+				Scan.ATTR_TIMESTAMP, AttributeValue.builder().n("10").build(),
+				Scan.ATTR_RSSI, AttributeValue.builder().n("-60").build()));
+		ItemMapper.appendTo(columns, Map.of(
+				Scan.ATTR_TIMESTAMP, AttributeValue.builder().n("20").build(),
+				Scan.ATTR_COUNT, AttributeValue.builder().nul(true).build()));
+		ItemMapper.appendTo(columns, Map.of(
+				Scan.ATTR_TIMESTAMP, AttributeValue.builder().n("30").build(),
+				Scan.ATTR_COUNT, AttributeValue.builder().n("7").build()));
+
+		assertEquals(1, columns.count().size());
+		assertEquals(30L, columns.count().timestamps()[0]);
+		assertEquals(7, columns.count().values()[0]);
+		assertEquals(1, columns.rssi().size());
+		assertEquals(-60, columns.rssi().values()[0]);
+	}
+}
@@ -0,0 +1,69 @@
+package com.crowdsense.server.repository;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import com.crowdsense.server.model.Scan;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+class ScanBlockCodecTests {
+
+	@Test
+	void roundTripPreservesValuesAndNulls() {
+		List<Scan> scans = new ArrayList<>();
+		long ts = 1_750_000_000L;
+		for (int i = 0; i < 500; i++) {
+			ts += (i % 7 == 0) ? 16 : 15;
+			Integer count = (i % 11 == 0) ? null : (i * 37) % 90;
+			Integer rssi = (i % 13 == 0) ? null : -40 - (i % 50);
+			scans.add(scan("b1", ts, count, rssi));
+		}
+
+		List<Scan> decoded = ScanBlockCodec.decode("b1", ScanBlockCodec.encode(scans));
+
+		assertEquals(scans.size(), decoded.size());
+		for (int i = 0; i < scans.size(); i++) {
+			assertEquals("b1", decoded.get(i).getId());
+			assertEquals(scans.get(i).getTimestamp(), decoded.get(i).getTimestamp());
+			assertEquals(scans.get(i).getCount(), decoded.get(i).getCount());
+			assertEquals(scans.get(i).getRssi(), decoded.get(i).getRssi());
+		}
+	}
+
+	@Test
+	void decodeIntoFillsOnlyRequestedSeries() {
+		byte[] data = ScanBlockCodec.encode(List.of(
+				scan("b1", 100, 3, -60),
+				scan("b1", 115, null, -61),
+				scan("b1", 130, 5, null),
+				scan("b1", 145, 6, -62)));
+
+		ScanColumns counts = new ScanColumns();
+		ScanBlockCodec.decodeInto(data, 110, 140, true, false, counts);
+		assertEquals(1, counts.count().size());
+		assertEquals(130L, counts.count().timestamps()[0]);
+		assertEquals(5, counts.count().values()[0]);
+		assertEquals(0, counts.rssi().size());
+
+		ScanColumns both = new ScanColumns();
+		ScanBlockCodec.decodeInto(data, 0, 200, true, true, both);
+		assertEquals(3, both.count().size());
+		assertEquals(3, both.rssi().size());
+	}
+
+	@Test
+	void emptyBlock() {
+		assertEquals(0, ScanBlockCodec.decode("b1", ScanBlockCodec.encode(List.of())).size());
+	}
+
+	private static Scan scan(String id, long ts, Integer count, Integer rssi) {
+		Scan s = new Scan();
+		s.setId(id);
+		s.setTimestamp(ts);
+		s.setCount(count);
+		s.setRssi(rssi);
+		return s;
+	}
+}
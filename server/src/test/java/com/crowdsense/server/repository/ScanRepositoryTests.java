@@ -0,0 +1,229 @@
+package com.crowdsense.server.repository;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.crowdsense.server.model.Scan;
+import com.crowdsense.server.model.ScanBlock;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import software.amazon.awssdk.core.SdkBytes;
+import software.amazon.awssdk.enhanced.dynamodb.DynamoDbEnhancedClient;
+import software.amazon.awssdk.enhanced.dynamodb.DynamoDbTable;
+import software.amazon.awssdk.enhanced.dynamodb.model.Page;
+import software.amazon.awssdk.enhanced.dynamodb.model.PageIterable;
+import software.amazon.awssdk.enhanced.dynamodb.model.PutItemEnhancedRequest;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.BatchWriteItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.BatchWriteItemResponse;
+import software.amazon.awssdk.services.dynamodb.model.ConditionalCheckFailedException;
+import software.amazon.awssdk.services.dynamodb.model.QueryRequest;
+import software.amazon.awssdk.services.dynamodb.model.QueryResponse;
+import software.amazon.awssdk.services.dynamodb.model.WriteRequest;
+import software.amazon.awssdk.services.dynamodb.paginators.QueryIterable;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+
+@SuppressWarnings("unchecked")
+class ScanRepositoryTests {
+
+	private static final String ID = "b1";
+	private static final long BLOCK = ScanRepository.BLOCK_SECONDS;
+	// a day old enough to be archived
+	private static final long DAY = (Instant.now().getEpochSecond() / BLOCK - 5) * BLOCK;
+
+	private final DynamoDbClient raw = mock(DynamoDbClient.class);
+	private final DynamoDbTable<ScanBlock> blockTable = mock(DynamoDbTable.class);
+
+	// ScanTable rows by timestamp, served through the mocked query and batchWriteItem calls
+	private final TreeMap<Long, Map<String, AttributeValue>> rows = new TreeMap<>();
+	private final List<QueryRequest> queries = new ArrayList<>();
+	private ScanRepository repo;
+
+	@BeforeEach
+	void setUp() {
+		DynamoDbEnhancedClient enhanced = mock(DynamoDbEnhancedClient.class);
+		doReturn(blockTable).when(enhanced).table(eq("ScanBlockTable"), any());
+		repo = new ScanRepository(enhanced, raw);
+		repo.batchWriteBackoffMs = 0;
+
+		when(raw.queryPaginator(any(QueryRequest.class))).thenAnswer(inv -> new QueryIterable(raw, inv.getArgument(0)));
+		when(raw.query(any(QueryRequest.class))).thenAnswer(inv -> queryRows(inv.getArgument(0)));
+		doAnswer(inv -> deleteRows(inv.getArgument(0), 0)).when(raw).batchWriteItem(any(BatchWriteItemRequest.class));
+	}
+
+	@Test
+	void lateRowsAreMergedIntoExistingBlock() {
+		when(blockTable.getItem(any(Consumer.class))).thenReturn(block(scan(DAY + 10), scan(DAY + 20)));
+		addRow(DAY + 15);
+		addRow(DAY + 30);
+		addRow(DAY + BLOCK + 5);
+
+		assertEquals(2, repo.archiveBlock(ID, DAY));
+
+		PutItemEnhancedRequest<ScanBlock> put = puts(1).get(0);
+		assertEquals(List.of(DAY + 10, DAY + 15, DAY + 20, DAY + 30), timestamps(put.item()));
+		assertEquals(4, put.item().getSize());
+		assertEquals(DAY + BLOCK, put.item().getEnd());
+		assertEquals("#sz = :size", put.conditionExpression().expression());
+		assertEquals("2", put.conditionExpression().expressionValues().get(":size").n());
+
+		assertEquals(List.of(DAY + BLOCK + 5), List.copyOf(rows.keySet()));
+	}
+
+	@Test
+	void conditionalCheckFailureReReadsBlockAndRetries() {
+		// another compactor writes the block between our read and our put
+		when(blockTable.getItem(any(Consumer.class))).thenReturn(null, block(scan(DAY + 5)));
+		doThrow(ConditionalCheckFailedException.builder().message("conflict").build())
+				.doNothing()
+				.when(blockTable).putItem(any(PutItemEnhancedRequest.class));
+		addRow(DAY + 15);
+
+		assertEquals(1, repo.archiveBlock(ID, DAY));
+
+		List<PutItemEnhancedRequest<ScanBlock>> puts = puts(2);
+		assertEquals("attribute_not_exists(#id)", puts.get(0).conditionExpression().expression());
+		assertEquals("#sz = :size", puts.get(1).conditionExpression().expression());
+		assertEquals(List.of(DAY + 5, DAY + 15), timestamps(puts.get(1).item()));
+
+		verify(raw, times(1)).batchWriteItem(any(BatchWriteItemRequest.class));
+		assertTrue(rows.isEmpty());
+	}
+
+	@Test
+	void rowsAreKeptWhenBlockKeepsChanging() {
+		doThrow(ConditionalCheckFailedException.builder().message("conflict").build())
+				.when(blockTable).putItem(any(PutItemEnhancedRequest.class));
+		addRow(DAY + 15);
+
+		assertThrows(IllegalStateException.class, () -> repo.archiveBlock(ID, DAY));
+
+		puts(ScanRepository.ARCHIVE_ATTEMPTS);
+		verify(raw, times(0)).batchWriteItem(any(BatchWriteItemRequest.class));
+		assertEquals(1, rows.size());
+	}
+
+	@Test
+	void rawRowsCoveredByBlockAreNotReadTwice() {
+		ScanBlock archived = block(scan(DAY + 100), scan(DAY + 200));
+		PageIterable<ScanBlock> pages = PageIterable.create(() -> List.of(Page.create(List.of(archived))).iterator());
+		when(blockTable.query(any(Consumer.class))).thenReturn(pages);
+		addRow(DAY + 100); // archived, delete still pending
+		addRow(DAY + BLOCK + 50);
+		long to = DAY + 2 * BLOCK - 1;
+
+		List<Long> read = repo.queryBetween(ID, DAY, to).stream().map(Scan::getTimestamp).toList();
+		assertEquals(List.of(DAY + 100, DAY + 200, DAY + BLOCK + 50), read);
+		assertEquals(3, repo.queryColumns(ID, DAY, to, Scan.ATTR_COUNT).count().size());
+
+		assertEquals(2, queries.size());
+		for (QueryRequest q : queries) {
+			assertEquals(Long.toString(DAY + BLOCK), q.expressionAttributeValues().get(":fromVal").n());
+		}
+	}
+
+	@Test
+	void unprocessedDeletesAreRetried() {
+		doAnswer(inv -> deleteRows(inv.getArgument(0), 1))
+				.doAnswer(inv -> deleteRows(inv.getArgument(0), 0))
+				.when(raw).batchWriteItem(any(BatchWriteItemRequest.class));
+		addRow(DAY + 10);
+		addRow(DAY + 20);
+
+		assertEquals(2, repo.archiveBlock(ID, DAY));
+
+		verify(raw, times(2)).batchWriteItem(any(BatchWriteItemRequest.class));
+		assertTrue(rows.isEmpty());
+	}
+
+	@Test
+	void deleteGivesUpAfterRetries() {
+		doAnswer(inv -> deleteRows(inv.getArgument(0), Integer.MAX_VALUE))
+				.when(raw).batchWriteItem(any(BatchWriteItemRequest.class));
+		addRow(DAY + 10);
+
+		assertThrows(IllegalStateException.class, () -> repo.archiveBlock(ID, DAY));
+
+		verify(raw, times(ScanRepository.BATCH_WRITE_RETRIES + 1)).batchWriteItem(any(BatchWriteItemRequest.class));
+		assertEquals(1, rows.size());
+	}
+
+	private QueryResponse queryRows(QueryRequest req) {
+		queries.add(req);
+		long from = Long.parseLong(req.expressionAttributeValues().get(":fromVal").n());
+		long to = Long.parseLong(req.expressionAttributeValues().get(":toVal").n());
+
+		List<Map<String, AttributeValue>> items = new ArrayList<>(rows.subMap(from, true, to, true).values());
+		if (req.limit() != null && items.size() > req.limit()) {
+			items = items.subList(0, req.limit());
+		}
+		return QueryResponse.builder().items(items).build();
+	}
+
+	// Deletes the requested rows except the last `unprocessed`, which are handed back.
+	private BatchWriteItemResponse deleteRows(BatchWriteItemRequest req, int unprocessed) {
+		List<WriteRequest> writes = req.requestItems().get("ScanTable");
+		int done = writes.size() - Math.min(unprocessed, writes.size());
+		for (WriteRequest w : writes.subList(0, done)) {
+			rows.remove(Long.parseLong(w.deleteRequest().key().get(Scan.ATTR_TIMESTAMP).n()));
+		}
+
+		List<WriteRequest> left = writes.subList(done, writes.size());
+		return BatchWriteItemResponse.builder()
+				.unprocessedItems(left.isEmpty() ? Map.of() : Map.of("ScanTable", left))
+				.build();
+	}
+
+	private List<PutItemEnhancedRequest<ScanBlock>> puts(int count) {
+		ArgumentCaptor<PutItemEnhancedRequest<ScanBlock>> captor = ArgumentCaptor.forClass(PutItemEnhancedRequest.class);
+		verify(blockTable, times(count)).putItem(captor.capture());
+		return captor.getAllValues();
+	}
+
+	private void addRow(long ts) {
+		rows.put(ts, Map.of(
+				Scan.ATTR_ID, AttributeValue.builder().s(ID).build(),
+				Scan.ATTR_TIMESTAMP, AttributeValue.builder().n(Long.toString(ts)).build(),
+				Scan.ATTR_COUNT, AttributeValue.builder().n("3").build()));
+	}
+
+	private static ScanBlock block(Scan... scans) {
+		ScanBlock b = new ScanBlock();
+		b.setId(ID);
+		b.setStart(DAY);
+		b.setEnd(DAY + BLOCK);
+		b.setSize(scans.length);
+		b.setData(SdkBytes.fromByteArray(ScanBlockCodec.encode(List.of(scans))));
+		return b;
+	}
+
+	private static Scan scan(long ts) {
+		Scan s = new Scan();
+		s.setId(ID);
+		s.setTimestamp(ts);
+		s.setCount(3);
+		return s;
+	}
+
+	private static List<Long> timestamps(ScanBlock b) {
+		return ScanBlockCodec.decode(ID, b.getData().asByteArray()).stream().map(Scan::getTimestamp).toList();
+	}
+}
@@ -0,0 +1,58 @@
+package com.crowdsense.server.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.api.Test;
+
+class BucketStatsTests {
+
+	@Test
+	void matchesElementWiseBinning() {
+		int n = 2000;
+		long[] ts = new long[n];
+		int[] values = new int[n];
+		for (int i = 0; i < n; i++) {
+			ts[i] = 1_000 + i * 15L;
+			values[i] = (i * 31) % 97 - 20;
+		}
+
+		long[] sum = new long[10];
+		int[] count = new int[10];
+		for (int i = 0; i < n; i++) {
+			long b = (ts[i] - 3_600) / 3_600;
+			if (ts[i] < 3_600 || b >= 10) continue;
+			sum[(int) b] += values[i];
+			count[(int) b]++;
+		}
+
+		BucketStats stats = BucketStats.aggregate(ts, values, n, 3_600, 3_600, 10);
+
+		for (int b = 0; b < 10; b++) {
+			assertEquals(sum[b], stats.sum(b));
+			assertEquals(count[b], stats.count(b));
+		}
+	}
+
+	@Test
+	void bucketsMatchNaiveBinning() {
+		long[] ts = { 0, 10, 59, 60, 61, 125, 300 };
+		int[] values = { 5, -1, 7, 3, 9, 4, 100 };
+
+		BucketStats stats = BucketStats.aggregate(ts, values, ts.length, 10, 60, 2);
+
+		assertEquals(4, stats.count(0));
+		assertEquals(18L, stats.sum(0));
+		assertEquals(4.5, stats.mean(0), 1e-9);
+		assertEquals(1, stats.count(1));
+		assertEquals(4.0, stats.mean(1), 1e-9);
+	}
+
+	@Test
+	void emptyBucket() {
+		BucketStats stats = BucketStats.aggregate(new long[0], new int[0], 0, 0, 60, 3);
+
+		assertEquals(0, stats.count(2));
+		assertEquals(0L, stats.sum(2));
+		assertEquals(0.0, stats.mean(2), 0.0);
+	}
+}
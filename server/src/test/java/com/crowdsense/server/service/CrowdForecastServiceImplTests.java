@@ -0,0 +1,136 @@
+package com.crowdsense.server.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.crowdsense.server.dto.response.CrowdForecastResponse;
+import com.crowdsense.server.model.Information;
+import com.crowdsense.server.repository.InformationRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+class CrowdForecastServiceImplTests {
+
+	private final InformationRepository infoRepo = mock(InformationRepository.class);
+	private final BeaconService beaconService = mock(BeaconService.class);
+	private final CrowdForecastServiceImpl service = new CrowdForecastServiceImpl(infoRepo, beaconService);
+	// holds the b1 fit until the test releases it
+	private final CountDownLatch release = new CountDownLatch(1);
+
+	@BeforeEach
+	void setUp() {
+		Information info = new Information();
+		info.setId("b1");
+		when(infoRepo.queryById(eq("b1"), eq(Information.ATTR_ID))).thenReturn(info);
+
+		// Each hour reads slot % 10, so every slot fits to a constant whatever the current time is.
+		when(beaconService.getHourlyStats(eq("b1"), anyLong(), anyInt())).thenAnswer(inv -> {
+			release.await(5, TimeUnit.SECONDS);
+			long fromHour = inv.<Long>getArgument(1) / 3600L;
+			int[] values = new int[inv.<Integer>getArgument(2)];
+			for (int i = 0; i < values.length; i++) {
+				values[i] = CrowdForecastServiceImpl.slot(fromHour + i) % 10;
+			}
+			return hourly(fromHour, values);
+		});
+	}
+
+	@AfterEach
+	void tearDown() {
+		service.shutdown();
+	}
+
+	@Test
+	void slotIsEpochHourModWeek() {
+		assertEquals(0, CrowdForecastServiceImpl.slot(0));
+		assertEquals(167, CrowdForecastServiceImpl.slot(167));
+		assertEquals(0, CrowdForecastServiceImpl.slot(168));
+		assertEquals(5, CrowdForecastServiceImpl.slot(168 * 3000L + 5));
+		assertEquals(167, CrowdForecastServiceImpl.slot(-1));
+	}
+
+	@Test
+	void updateSeedsThenSmooths() {
+		float[] slots = new float[CrowdForecastServiceImpl.HOURS_PER_WEEK];
+		Arrays.fill(slots, Float.NaN);
+
+		// hours 166..169 hit slots 166, 167, 0, 1; hour 167 has no samples
+		long fromHour = 166;
+		CrowdForecastServiceImpl.update(slots, hourly(fromHour, 10, -1, 4, 8), fromHour);
+		assertEquals(10f, slots[166], 1e-6);
+		assertTrue(Float.isNaN(slots[167]));
+		assertEquals(4f, slots[0], 1e-6);
+		assertEquals(8f, slots[1], 1e-6);
+
+		// one week later the same slots are blended with ALPHA
+		fromHour += CrowdForecastServiceImpl.HOURS_PER_WEEK;
+		CrowdForecastServiceImpl.update(slots, hourly(fromHour, 20, 6, -1, -1), fromHour);
+		float a = CrowdForecastServiceImpl.ALPHA;
+		assertEquals(a * 20 + (1 - a) * 10, slots[166], 1e-5);
+		assertEquals(6f, slots[167], 1e-6);
+		assertEquals(4f, slots[0], 1e-6);
+
+		assertEquals((slots[166] + 6 + 4 + 8) / 4, CrowdForecastServiceImpl.fallback(slots), 1e-5);
+	}
+
+	@Test
+	void missSchedulesOneFitAndAnswersOnceWarm() throws InterruptedException {
+		for (int i = 0; i < 5; i++) {
+			assertNull(service.getForecast("b1", 24));
+		}
+		release.countDown();
+
+		CrowdForecastResponse forecast = null;
+		long deadline = System.currentTimeMillis() + 5_000;
+		while (forecast == null && System.currentTimeMillis() < deadline) {
+			Thread.sleep(10);
+			forecast = service.getForecast("b1", CrowdForecastServiceImpl.HOURS_PER_WEEK);
+		}
+
+		long startHour = forecast.getStart() / 3600L;
+		List<Double> list = forecast.getList();
+		assertEquals(CrowdForecastServiceImpl.HOURS_PER_WEEK, list.size());
+		for (int i = 0; i < list.size(); i++) {
+			assertEquals(CrowdForecastServiceImpl.slot(startHour + i) % 10, list.get(i), 1e-5);
+		}
+		assertTrue(forecast.getFitted() <= forecast.getStart());
+		verify(beaconService, times(1)).getHourlyStats(eq("b1"), anyLong(), anyInt());
+	}
+
+	@Test
+	void unknownBeaconIsNotFitted() {
+		assertNull(service.getForecast("missing", 24));
+		service.warm("missing").join();
+
+		assertNull(service.getForecast("missing", 24));
+		verify(beaconService, never()).getHourlyStats(eq("missing"), anyLong(), anyInt());
+	}
+
+	// One sample per hour from fromHour; a negative value leaves that hour empty.
+	private static BucketStats hourly(long fromHour, int... values) {
+		long[] ts = new long[values.length];
+		int[] vs = new int[values.length];
+		int n = 0;
+		for (int i = 0; i < values.length; i++) {
+			if (values[i] < 0) continue;
+			ts[n] = (fromHour + i) * 3600L + 60;
+			vs[n++] = values[i];
+		}
+		return BucketStats.aggregate(ts, vs, n, fromHour * 3600L, 3600L, values.length);
+	}
+}
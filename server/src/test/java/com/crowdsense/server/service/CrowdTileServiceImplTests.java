@@ -0,0 +1,104 @@
+package com.crowdsense.server.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.crowdsense.server.dto.response.CrowdCell;
+import com.crowdsense.server.dto.response.CrowdTileResponse;
+import com.crowdsense.server.model.Information;
+import com.crowdsense.server.repository.InformationRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+class CrowdTileServiceImplTests {
+
+	// Seoul City Hall; expected tiles are the standard slippy map z/x/y, cells the 16x16 split.
+	private static final double LAT = 37.5665;
+	private static final double LON = 126.9780;
+
+	private final List<Information> beacons = new ArrayList<>();
+	private final Map<String, Double> crowd = new HashMap<>();
+	private final InformationRepository infoRepo = mock(InformationRepository.class);
+	private final BeaconService beaconService = mock(BeaconService.class);
+	private final CrowdTileServiceImpl service = new CrowdTileServiceImpl(infoRepo, beaconService, 60_000);
+
+	@BeforeEach
+	void setUp() {
+		when(infoRepo.scanAll(any(String[].class))).thenAnswer(inv -> new ArrayList<>(beacons));
+		when(beaconService.getCrowdAverage(anyString(), anyInt())).thenAnswer(inv -> crowd.get(inv.getArgument(0)));
+	}
+
+	@Test
+	void beaconLandsInKnownTileAndCell() {
+		addBeacon("b1", LAT, LON, 12.0);
+		service.refresh();
+
+		assertCell(service.getTile(6, 54, 24), 9, 12, 12.0, 1);
+		assertCell(service.getTile(12, 3492, 1586), 11, 2, 12.0, 1);
+		assertCell(service.getTile(18, 223534, 101515), 8, 13, 12.0, 1);
+
+		assertTrue(service.getTile(12, 3493, 1586).getCells().isEmpty());
+		assertTrue(service.getTile(12, 1586, 3492).getCells().isEmpty());
+	}
+
+	@Test
+	void cellCenterRoundTripsToBeaconPosition() {
+		addBeacon("b1", LAT, LON, 5.0);
+		service.refresh();
+
+		CrowdCell cell = service.getTile(18, 223534, 101515).getCells().get(0);
+		double cellDegrees = 360.0 / (1L << (18 + CrowdTileServiceImpl.GRID_BITS));
+		assertTrue(Math.abs(cell.getLon() - LON) <= cellDegrees);
+		assertTrue(Math.abs(cell.getLat() - LAT) <= cellDegrees);
+	}
+
+	@Test
+	void refreshTracksRemovedAndChangedBeacons() {
+		addBeacon("b1", LAT, LON, 10.0);
+		addBeacon("b2", LAT, LON, 4.0);
+		service.refresh();
+		assertCell(service.getTile(12, 3492, 1586), 11, 2, 14.0, 2);
+
+		beacons.removeIf(i -> i.getId().equals("b2"));
+		crowd.put("b1", 7.0);
+		service.refresh();
+		assertCell(service.getTile(14, 13970, 6344), 14, 11, 7.0, 1);
+	}
+
+	@Test
+	void rejectsOutOfRangeTiles() {
+		assertNull(service.getTile(CrowdTileServiceImpl.MIN_ZOOM - 1, 0, 0));
+		assertNull(service.getTile(CrowdTileServiceImpl.MAX_ZOOM + 1, 0, 0));
+		assertNull(service.getTile(12, 4096, 0));
+		assertNull(service.getTile(12, 0, -1));
+	}
+
+	private void addBeacon(String id, double lat, double lon, double value) {
+		Information i = new Information();
+		i.setId(id);
+		i.setLatitude(lat);
+		i.setLongitude(lon);
+		beacons.add(i);
+		crowd.put(id, value);
+	}
+
+	private static void assertCell(CrowdTileResponse tile, int cx, int cy, double crowd, int count) {
+		assertEquals(1, tile.getCells().size());
+		CrowdCell cell = tile.getCells().get(0);
+		assertEquals(cx, cell.getCx());
+		assertEquals(cy, cell.getCy());
+		assertEquals(crowd, cell.getCrowd(), 1e-9);
+		assertEquals(count, cell.getBeacons());
+	}
+}
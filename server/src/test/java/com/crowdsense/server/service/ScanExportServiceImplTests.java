@@ -0,0 +1,121 @@
+package com.crowdsense.server.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import com.crowdsense.server.model.Scan;
+import com.crowdsense.server.service.ScanExportService.Format;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+class ScanExportServiceImplTests {
+
+	private final ScanExportServiceImpl service = new ScanExportServiceImpl(null, null);
+
+	@Test
+	void fanOutWritesEveryChunk() throws IOException {
+		StringWriter out = new StringWriter();
+
+		service.fanOut(List.of("a", "b", "c", "d", "e"), (id, sink) -> {
+			for (int page = 0; page < 20; page++) {
+				sink.accept(List.of(scan(id, page * 2L), scan(id, page * 2L + 1)));
+			}
+		}, Format.NDJSON, out);
+
+		assertEquals(5 * 20 * 2, out.toString().split("\n").length);
+	}
+
+	@Test
+	void workerFailurePropagates() {
+		IllegalStateException boom = new IllegalStateException("boom");
+
+		IllegalStateException thrown = assertThrows(IllegalStateException.class, () ->
+			service.fanOut(List.of("a", "b"), (id, sink) -> {
+				if (id.equals("b")) throw boom;
+				sink.accept(List.of(scan(id, 1)));
+			}, Format.NDJSON, new StringWriter()));
+
+		assertSame(boom, thrown);
+	}
+
+	@Test
+	void writerFailureStopsWorkers() throws InterruptedException {
+		// a worker cancelled before it starts never runs, so track only the ones that did
+		AtomicInteger running = new AtomicInteger();
+		Writer broken = new Writer() {
+			@Override public void write(char[] buf, int off, int len) throws IOException { throw new IOException("client gone"); }
+			@Override public void flush() { }
+			@Override public void close() { }
+		};
+
+		assertThrows(IOException.class, () ->
+			service.fanOut(List.of("a", "b"), (id, sink) -> {
+				running.incrementAndGet();
+				try {
+					while (true) sink.accept(List.of(scan(id, 1)));
+				} finally {
+					running.decrementAndGet();
+				}
+			}, Format.CSV, broken));
+
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+		while (running.get() > 0 && System.nanoTime() < deadline) {
+			Thread.sleep(10);
+		}
+		assertEquals(0, running.get());
+	}
+
+	@Test
+	void stalledReaderTimesOut() {
+		service.chunkTimeoutMs = 100;
+		CountDownLatch never = new CountDownLatch(1);
+
+		assertThrows(IOException.class, () ->
+			service.fanOut(List.of("a", "b"), (id, sink) -> {
+				try {
+					never.await();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+			}, Format.NDJSON, new StringWriter()));
+	}
+
+	@Test
+	void escapesCsvAndJson() throws IOException {
+		assertEquals("plain", ScanExportServiceImpl.csv("plain"));
+		assertEquals("\"a,b\"", ScanExportServiceImpl.csv("a,b"));
+		assertEquals("\"say \"\"hi\"\"\"", ScanExportServiceImpl.csv("say \"hi\""));
+		assertEquals("\"two\nlines\"", ScanExportServiceImpl.csv("two\nlines"));
+		assertEquals("", ScanExportServiceImpl.csv(null));
+
+		assertEquals("\"a\\\"b\\\\c\\u0001\"", ScanExportServiceImpl.json("a\"b\\c\u0001"));
+		assertEquals("null", ScanExportServiceImpl.json(null));
+
+		Scan s = scan("x,\"y\"", 7);
+		s.setRssi(null);
+		StringWriter csv = new StringWriter();
+		ScanExportServiceImpl.writeChunk(csv, List.of(s), Format.CSV);
+		assertEquals("\"x,\"\"y\"\"\",7,3,\n", csv.toString());
+
+		StringWriter json = new StringWriter();
+		ScanExportServiceImpl.writeChunk(json, List.of(s), Format.NDJSON);
+		assertEquals("{\"id\":\"x,\\\"y\\\"\",\"timestamp\":7,\"count\":3,\"rssi\":null}\n", json.toString());
+	}
+
+	private static Scan scan(String id, long ts) {
+		Scan s = new Scan();
+		s.setId(id);
+		s.setTimestamp(ts);
+		s.setCount(3);
+		s.setRssi(-60);
+		return s;
+	}
+}